@@ -19,7 +19,7 @@ import ballerina/jballerina.java;
 # Represents the client that is used to complete received messages.
 public client isolated class Caller {
 
-    # Completes the received message.
+    # Completes the received message, or all the messages of a batch received by `onMessages`.
     # ```ballerina
     # check caller->complete();
     #```
@@ -30,7 +30,7 @@ public client isolated class Caller {
         'class: "io.ballerina.stdlib.mqtt.caller.CallerActions"
     } external;
 
-    # Send the response for the request message.
+    # Send the response for the request message. A batch received by `onMessages` cannot be responded to.
     # ```ballerina
     # check caller->respond({payload: "Hello Response".toBytes()});
     # ```
@@ -41,4 +41,17 @@ public client isolated class Caller {
     @java:Method {
         'class: "io.ballerina.stdlib.mqtt.caller.CallerActions"
     } external;
+
+    # Returns the properties of the received message. This is how the properties are read when the listener is
+    # configured with `lazyProperties`, as they are then left out of the `mqtt:Message` given to `onMessage`. The
+    # properties are empty for a batch received by `onMessages`, whose messages always carry their properties.
+    # ```ballerina
+    # mqtt:MessageProperties properties = caller.getProperties();
+    # ```
+    #
+    # + return - The properties of the received message
+    public isolated function getProperties() returns MessageProperties =
+    @java:Method {
+        'class: "io.ballerina.stdlib.mqtt.caller.CallerActions"
+    } external;
 }
@@ -44,6 +44,36 @@ public client isolated class Client {
         return self.externPublish(topic, message);
     }
 
+    # Publishes a message to a topic without waiting for the delivery to complete.
+    # ```ballerina
+    # mqtt:PublishFuture publishFuture = check 'client->publishAsync("mqtt/topic", message);
+    # mqtt:DeliveryToken token = check publishFuture.get();
+    # ```
+    #
+    # + topic - Topic to publish the message to
+    # + message - Message to publish
+    # + return - `mqtt:PublishFuture` to collect the delivery token later or else `mqtt:Error` if an error occurs
+    # while handing the message over to the server
+    isolated remote function publishAsync(string topic, Message message) returns PublishFuture|Error {
+        return self.externPublishAsync(topic, message);
+    }
+
+    # Publishes a batch of messages in a single call and waits for all of them to be delivered.
+    # ```ballerina
+    # (mqtt:DeliveryToken|mqtt:Error)[] results = 'client->publishBatch([
+    #     {topic: "mqtt/topic1", message: message1},
+    #     {topic: "mqtt/topic2", message: message2}
+    # ]);
+    # ```
+    #
+    # + batch - The topic and message pairs to publish
+    # + return - The `mqtt:DeliveryToken` or the `mqtt:Error` of each message, in the order of the batch
+    isolated remote function publishBatch(PublishRequest[] batch) returns (DeliveryToken|Error)[] {
+        (DeliveryToken|Error)[] results = [];
+        self.externPublishBatch(batch, results);
+        return results;
+    }
+
     # Subscribes to a given topic in the request response scenario.
     # ```ballerina
     # check 'client->subscribe([{topic: "mqtt/topic1", qos: 0}, {topic: "mqtt/topic2", qos: 1}]);
@@ -55,19 +85,38 @@ public client isolated class Client {
         check self.externSubscribe(processSubscriptions(subscriptions));
     }
 
-    # Receives messages from the server.
+    # Receives messages from the server. The stream can be of `mqtt:Message` or of any other `anydata` type that the
+    # payload of each message is bound to.
     # ```ballerina
     # stream<mqtt:Message, error?> responseStream = check 'client->receive();
     # ```
     # 
+    # + topicFilter - The topic filter that the messages of the stream should match. A stream without a filter receives
+    # the messages that match no filter of the other streams
     # + T - Type of the stream to return
-    # + return - `stream<Message, error?>` or else`mqtt:Error` if an error occurs while receiving the response
-    isolated remote function receive(typedesc<stream<Message, error?>> T = <>) returns T|Error =
+    # + return - `stream<T, error?>` or else`mqtt:Error` if an error occurs while receiving the response
+    isolated remote function receive(string? topicFilter = (), typedesc<stream<anydata, error?>> T = <>) returns T|Error =
     @java:Method {
         name: "externReceive",
         'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
     } external;
 
+    # Receives messages from the server in batches.
+    # ```ballerina
+    # stream<mqtt:Message[], error?> batchStream = check 'client->receiveBatch(100, 0.5);
+    # ```
+    #
+    # + maxMessages - Maximum number of messages in a batch
+    # + maxWait - Maximum time in seconds to wait for a batch to fill once its first message is received
+    # + topicFilter - The topic filter that the messages of the stream should match. A stream without a filter receives
+    # the messages that match no filter of the other streams
+    # + return - `stream<Message[], error?>` or else `mqtt:Error` if an error occurs while receiving the messages
+    isolated remote function receiveBatch(int maxMessages, decimal maxWait, string? topicFilter = ())
+            returns stream<Message[], error?>|Error {
+        BatchStreamIterator iterator = check self.externReceiveBatch(maxMessages, maxWait, topicFilter);
+        return new stream<Message[], error?>(iterator);
+    }
+
     # Closes the connection to the server.
     # ```ballerina
     # check 'client->close();
@@ -108,6 +157,17 @@ public client isolated class Client {
         check self.externReconnect();
     }
 
+    # Returns the metrics of the messages received by the client.
+    # ```ballerina
+    # mqtt:ClientMetrics metrics = 'client.getMetrics();
+    # ```
+    #
+    # + return - The current client metrics
+    public isolated function getMetrics() returns ClientMetrics =
+    @java:Method {
+        'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
+    } external;
+
     private isolated function externInit(string serverUri, string clientId, *ClientConfiguration config) returns Error? =
     @java:Method {
         'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
@@ -118,6 +178,16 @@ public client isolated class Client {
         'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
     } external;
 
+    private isolated function externPublishAsync(string topic, Message message) returns PublishFuture|Error =
+    @java:Method {
+        'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
+    } external;
+
+    private isolated function externPublishBatch(PublishRequest[] batch, (DeliveryToken|Error)[] results) =
+    @java:Method {
+        'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
+    } external;
+
    private isolated function externSubscribe(Subscription[] subscriptions) returns Error? =
    @java:Method {
        'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
@@ -138,6 +208,12 @@ public client isolated class Client {
         'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
     } external;
 
+    private isolated function externReceiveBatch(int maxMessages, decimal maxWait, string? topicFilter)
+            returns BatchStreamIterator|Error =
+    @java:Method {
+        'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
+    } external;
+
     private isolated function externReconnect() returns Error? =
     @java:Method {
         'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
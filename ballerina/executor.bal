@@ -0,0 +1,49 @@
+// Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied. See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/jballerina.java;
+
+# Indicates whether the native tasks that the module runs off the MQTT client threads run on virtual threads.
+configurable boolean useVirtualThreads = true;
+
+# The maximum number of platform threads that run the native tasks of the module when `useVirtualThreads` is disabled.
+# This should be positive.
+configurable int maxExecutorThreads = 16;
+
+# Represents the metrics of the executor that runs the native tasks of the module.
+#
+# + activeTasks - The number of tasks that are currently running
+# + queuedTasks - The number of tasks that are waiting to be run
+# + completedTasks - The number of tasks that have finished running
+public type ExecutorMetrics record {|
+    int activeTasks;
+    int queuedTasks;
+    int completedTasks;
+|};
+
+# Returns the metrics of the executor that runs the native tasks of the module.
+# ```ballerina
+# mqtt:ExecutorMetrics metrics = mqtt:getExecutorMetrics();
+# ```
+#
+# + return - The current executor metrics
+public isolated function getExecutorMetrics() returns ExecutorMetrics = @java:Method {
+    'class: "io.ballerina.stdlib.mqtt.utils.MqttExecutor"
+} external;
+
+isolated function initExecutor(boolean useVirtualThreads, int maxThreads) returns Error? = @java:Method {
+    'class: "io.ballerina.stdlib.mqtt.utils.MqttExecutor"
+} external;
@@ -16,8 +16,9 @@
 
 import ballerina/jballerina.java;
 
-function init() {
+function init() returns error? {
     setModule();
+    check initExecutor(useVirtualThreads, maxExecutorThreads);
 }
 
 function setModule() = @java:Method {
@@ -45,7 +45,10 @@ public isolated class Listener {
         check self.externStart(self.mqttSubscriptions);
     };
 
-    # Stops the MQTT listener gracefully.
+    # Stops the MQTT listener gracefully. The listener stops handing new messages to the services and waits for at
+    # most `drainTimeout` seconds for the received messages to be handled. The pending acknowledgements are then sent
+    # before it disconnects. An error is returned when the messages are not handled in time, which are then left
+    # unacknowledged for the server to redeliver.
     # ```ballerina
     # mqtt:Error? result = 'listener.gracefulStop();
     # ```
@@ -69,7 +72,8 @@ public isolated class Listener {
         'class: "io.ballerina.stdlib.mqtt.listener.ListenerActions"
     } external;
 
-    # Attaches a service to the listener.
+    # Attaches a service to the listener. The service receives the messages matching the topic filters of its 
+    # `mqtt:ServiceConfig` annotation or, without the annotation, the messages that no other service is configured for.
     # ```ballerina
     # mqtt:Error? result = 'listener.attach(mqttService);
     # ```
@@ -83,7 +87,8 @@ public isolated class Listener {
         'class: "io.ballerina.stdlib.mqtt.listener.ListenerActions"
     } external;
 
-    # Detaches a consumer service from the listener.
+    # Detaches a consumer service from the listener. Detaching the last service drains and disconnects the listener
+    # as `gracefulStop` does.
     # ```ballerina
     # mqtt:Error? result = 'listener.detach(mqttService);
     # ```
@@ -96,6 +101,17 @@ public isolated class Listener {
         'class: "io.ballerina.stdlib.mqtt.listener.ListenerActions"
     } external;
 
+    # Returns the metrics of the acknowledgements and retries of the listener.
+    # ```ballerina
+    # mqtt:ListenerMetrics metrics = mqttListener.getMetrics();
+    # ```
+    #
+    # + return - The metrics of the listener
+    public isolated function getMetrics() returns ListenerMetrics =
+    @java:Method {
+        'class: "io.ballerina.stdlib.mqtt.listener.ListenerActions"
+    } external;
+
     private isolated function externInit(string serverUri, string clientId, *ListenerConfiguration config) returns Error? =
     @java:Method {
         'class: "io.ballerina.stdlib.mqtt.listener.ListenerActions"
@@ -528,3 +528,842 @@ function clientWillMessageTest() returns error? {
 
     test:assertTrue(receivedMessages.indexOf(message) == ());
 }
+
+const int CONCURRENT_PUBLISHERS = 8;
+const int PUBLISHES_PER_PUBLISHER = 25;
+
+isolated function publishFromPublisher(Client 'client, int publisher) returns DeliveryToken[]|error {
+    DeliveryToken[] tokens = [];
+    foreach int i in 0 ..< PUBLISHES_PER_PUBLISHER {
+        tokens.push(check 'client->publish(string `mqtt/concurrentpublishtest/${publisher}`,
+            {payload: string `Message ${i} of publisher ${publisher}`.toBytes(), qos: publisher % 2 + 1}));
+    }
+    return tokens;
+}
+
+@test:Config {enable: true}
+function concurrentPublishDeliveryTokensTest() returns error? {
+    Client subscriber = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    check subscriber->subscribe({topic: "mqtt/concurrentpublishtest/+", qos: 2});
+    stream<Message, error?> messages = check subscriber->receive();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    future<DeliveryToken[]|error>[] publishers = [];
+    foreach int publisher in 0 ..< CONCURRENT_PUBLISHERS {
+        publishers.push(start publishFromPublisher('client, publisher));
+    }
+    foreach int publisher in 0 ..< CONCURRENT_PUBLISHERS {
+        future<DeliveryToken[]|error> publisherFuture = publishers[publisher];
+        DeliveryToken[] tokens = check wait publisherFuture;
+        test:assertEquals(tokens.length(), PUBLISHES_PER_PUBLISHER);
+        foreach DeliveryToken token in tokens {
+            test:assertEquals(token.topic, string `mqtt/concurrentpublishtest/${publisher}`);
+        }
+    }
+    runtime:sleep(1);
+
+    foreach int i in 0 ..< CONCURRENT_PUBLISHERS * PUBLISHES_PER_PUBLISHER {
+        record {|Message value;|} received = <record {|Message value;|}>check messages.next();
+        string topic = received.value.topic ?: "";
+        int publisher = check int:fromString(topic.substring("mqtt/concurrentpublishtest/".length()));
+        test:assertEquals(received.value.qos, publisher % 2 + 1);
+    }
+
+    addListenerAndClientToArray((), subscriber);
+    addListenerAndClientToArray((), 'client);
+}
+
+@test:Config {enable: true}
+function publishAsyncTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/publishasynctest");
+    check 'listener.attach(basicService);
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    string message = "Test message for publish async test";
+    PublishFuture publishFuture = check 'client->publishAsync("mqtt/publishasynctest", {payload: message.toBytes()});
+    DeliveryToken token = check publishFuture.get(5);
+    test:assertTrue(publishFuture.isDone());
+    test:assertEquals(token.topic, "mqtt/publishasynctest");
+    runtime:sleep(1);
+
+    addListenerAndClientToArray('listener, 'client);
+
+    test:assertTrue(receivedMessages.indexOf(message) != ());
+}
+
+@test:Config {enable: true}
+function publishBatchTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/publishbatchtest/+");
+    check 'listener.attach(basicService);
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    string message1 = "First test message for publish batch test";
+    string message2 = "Second test message for publish batch test";
+    (DeliveryToken|Error)[] results = 'client->publishBatch([
+        {topic: "mqtt/publishbatchtest/1", message: {payload: message1.toBytes()}},
+        {topic: "mqtt/publishbatchtest/2", message: {payload: message2.toBytes()}}
+    ]);
+    runtime:sleep(1);
+
+    addListenerAndClientToArray('listener, 'client);
+
+    test:assertEquals(results.length(), 2);
+    test:assertEquals((check results[0]).topic, "mqtt/publishbatchtest/1");
+    test:assertEquals((check results[1]).topic, "mqtt/publishbatchtest/2");
+    test:assertTrue(receivedMessages.indexOf(message1) != ());
+    test:assertTrue(receivedMessages.indexOf(message2) != ());
+}
+
+@test:Config {enable: true}
+function publishBatchBeyondReceiveMaximumTest() returns error? {
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    PublishRequest[] batch = [];
+    foreach int i in 0 ..< 500 {
+        batch.push({topic: "mqtt/largebatchtest", message: {payload: string `Test message ${i}`.toBytes(), qos: 1}});
+    }
+    (DeliveryToken|Error)[] results = 'client->publishBatch(batch);
+
+    PublishFuture[] publishFutures = [];
+    foreach int i in 0 ..< 500 {
+        publishFutures.push(check 'client->publishAsync("mqtt/largebatchtest",
+            {payload: string `Test async message ${i}`.toBytes(), qos: 1}));
+    }
+    foreach PublishFuture publishFuture in publishFutures {
+        _ = check publishFuture.get(10);
+    }
+
+    addListenerAndClientToArray((), 'client);
+
+    foreach DeliveryToken|Error result in results {
+        test:assertTrue(result is DeliveryToken);
+    }
+}
+
+@test:Config {enable: true}
+function publishWithInflightWindowTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/inflightwindowtest");
+    check 'listener.attach(basicService);
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), {
+        inflightConfig: {
+            maxInflight: 1,
+            backpressurePolicy: BLOCK
+        }
+    });
+    string message = "Test message for in-flight window test";
+    PublishFuture[] publishFutures = [];
+    foreach int i in 0 ..< 5 {
+        publishFutures.push(check 'client->publishAsync("mqtt/inflightwindowtest", {payload: (message + i.toString()).toBytes()}));
+    }
+    foreach PublishFuture publishFuture in publishFutures {
+        DeliveryToken token = check publishFuture.get(5);
+        test:assertEquals(token.topic, "mqtt/inflightwindowtest");
+    }
+    runtime:sleep(1);
+
+    addListenerAndClientToArray('listener, 'client);
+
+    test:assertTrue(receivedMessages.indexOf(message + "4") != ());
+}
+
+@test:Config {enable: true}
+function executorMetricsTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/executormetricstest");
+    check 'listener.attach(basicService);
+    check 'listener.'start();
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    runtime:sleep(1);
+
+    ExecutorMetrics before = getExecutorMetrics();
+    foreach int i in 0 ..< 3 {
+        // Each message arrives after the previous one is handled, so that it is handled by a task of its own
+        _ = check 'client->publish("mqtt/executormetricstest", {payload: ("Test message " + i.toString()).toBytes()});
+        runtime:sleep(0.5);
+    }
+    ExecutorMetrics after = getExecutorMetrics();
+
+    addListenerAndClientToArray('listener, 'client);
+
+    test:assertTrue(after.completedTasks - before.completedTasks >= 3);
+    test:assertEquals(after.activeTasks, 0);
+    test:assertEquals(after.queuedTasks, 0);
+}
+
+@test:Config {enable: true}
+function receiveQueueDropOldestTest() returns error? {
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), {
+        receiveQueueConfig: {
+            capacity: 2,
+            overflowPolicy: DROP_OLDEST
+        }
+    });
+    check 'client->subscribe("mqtt/receivequeuetest");
+    foreach int i in 0 ..< 4 {
+        _ = check 'client->publish("mqtt/receivequeuetest", {payload: ("Test message " + i.toString()).toBytes()});
+    }
+    runtime:sleep(1);
+
+    ClientMetrics metrics = 'client.getMetrics();
+    test:assertEquals(metrics.queuedMessages, 2);
+    test:assertEquals(metrics.droppedMessages, 2);
+
+    stream<Message, error?> respStream = check 'client->receive();
+    record {|Message value;|} val = <record {|Message value;|}>check respStream.next();
+    test:assertEquals(check string:fromBytes(val.value.payload), "Test message 2");
+
+    addListenerAndClientToArray((), 'client);
+}
+
+@test:Config {enable: true}
+function invalidReceiveQueueCapacityTest() returns error? {
+    Client|Error result = new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), {receiveQueueConfig: {capacity: 0}});
+    test:assertTrue(result is Error);
+}
+
+@test:Config {enable: true}
+function receiveBatchTest() returns error? {
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    check 'client->subscribe("mqtt/receivebatchtest");
+    foreach int i in 0 ..< 5 {
+        _ = check 'client->publish("mqtt/receivebatchtest", {payload: ("Test message " + i.toString()).toBytes()});
+    }
+    runtime:sleep(1);
+
+    stream<Message[], error?> batchStream = check 'client->receiveBatch(3, 0.5);
+    record {|Message[] value;|} batch = <record {|Message[] value;|}>check batchStream.next();
+    test:assertEquals(batch.value.length(), 3);
+    batch = <record {|Message[] value;|}>check batchStream.next();
+    test:assertEquals(batch.value.length(), 2);
+    test:assertEquals(check string:fromBytes(batch.value[1].payload), "Test message 4");
+
+    addListenerAndClientToArray((), 'client);
+}
+
+@test:Config {enable: true}
+function receiveWithTopicFilterTest() returns error? {
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    check 'client->subscribe("mqtt/topicfiltertest/#");
+    stream<Message, error?> sensorStream = check 'client->receive("mqtt/topicfiltertest/sensors/+");
+    stream<Message, error?> otherStream = check 'client->receive();
+    _ = check 'client->publish("mqtt/topicfiltertest/alerts", {payload: "Test alert".toBytes()});
+    _ = check 'client->publish("mqtt/topicfiltertest/sensors/1", {payload: "Test reading".toBytes()});
+    runtime:sleep(1);
+
+    record {|Message value;|} val = <record {|Message value;|}>check sensorStream.next();
+    test:assertEquals(val.value.topic, "mqtt/topicfiltertest/sensors/1");
+    val = <record {|Message value;|}>check otherStream.next();
+    test:assertEquals(val.value.topic, "mqtt/topicfiltertest/alerts");
+
+    addListenerAndClientToArray((), 'client);
+}
+
+@test:Config {enable: true}
+function closeOneOfSharedReceiveStreamsTest() returns error? {
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    check 'client->subscribe("mqtt/sharedstreamtest");
+    stream<Message, error?> firstStream = check 'client->receive();
+    stream<Message, error?> secondStream = check 'client->receive();
+    _ = check 'client->publish("mqtt/sharedstreamtest", {payload: "Test message".toBytes()});
+    runtime:sleep(1);
+    check firstStream.close();
+
+    record {|Message value;|} val = <record {|Message value;|}>check secondStream.next();
+    test:assertEquals(check string:fromBytes(val.value.payload), "Test message");
+
+    addListenerAndClientToArray((), 'client);
+}
+
+@test:Config {enable: true}
+function receiveWithInvalidTopicFilterTest() returns error? {
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    stream<Message, error?>|Error result = 'client->receive("mqtt/#/invalid");
+    test:assertTrue(result is Error);
+    addListenerAndClientToArray((), 'client);
+}
+
+@test:Config {enable: true}
+function receiveWithRingBufferQueueTest() returns error? {
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), {
+        receiveQueueConfig: {
+            capacity: 4,
+            waitStrategy: PARK
+        }
+    });
+    check 'client->subscribe("mqtt/ringbuffertest");
+    stream<Message, error?> respStream = check 'client->receive();
+    foreach int i in 0 ..< 3 {
+        _ = check 'client->publish("mqtt/ringbuffertest", {payload: ("Test message " + i.toString()).toBytes()});
+    }
+
+    foreach int i in 0 ..< 3 {
+        record {|Message value;|} val = <record {|Message value;|}>check respStream.next();
+        test:assertEquals(check string:fromBytes(val.value.payload), "Test message " + i.toString());
+    }
+
+    addListenerAndClientToArray((), 'client);
+}
+
+isolated string[] orderedMessages = [];
+
+@test:Config {enable: true}
+function concurrentListenerPerTopicOrderingTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/concurrencytest/+", {
+        concurrency: 4,
+        ordering: PER_TOPIC
+    });
+    check 'listener.attach(service object {
+        isolated remote function onMessage(Message message) returns error? {
+            if message.topic == "mqtt/concurrencytest/ordered" {
+                lock {
+                    orderedMessages.push(check string:fromBytes(message.payload));
+                }
+            }
+        }
+    });
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    string[] expected = [];
+    foreach int i in 0 ..< 5 {
+        string message = "Test message " + i.toString();
+        expected.push(message);
+        _ = check 'client->publish("mqtt/concurrencytest/ordered", {payload: message.toBytes()});
+        _ = check 'client->publish("mqtt/concurrencytest/other", {payload: message.toBytes()});
+    }
+    runtime:sleep(1);
+
+    addListenerAndClientToArray('listener, 'client);
+
+    string[] actual;
+    lock {
+        actual = orderedMessages.clone();
+    }
+    test:assertEquals(actual, expected);
+}
+
+isolated string[] temperatureMessages = [];
+isolated string[] otherSensorMessages = [];
+
+@test:Config {enable: true}
+function multipleServicesWithTopicFiltersTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/routingtest/#");
+    check 'listener.attach(@ServiceConfig {topicFilters: "mqtt/routingtest/+/temperature"} service object {
+        isolated remote function onMessage(Message message) returns error? {
+            lock {
+                temperatureMessages.push(message.topic);
+            }
+        }
+    }, "temperatureService");
+    check 'listener.attach(service object {
+        isolated remote function onMessage(Message message) returns error? {
+            lock {
+                otherSensorMessages.push(message.topic);
+            }
+        }
+    });
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    _ = check 'client->publish("mqtt/routingtest/room1/temperature", {payload: "21".toBytes()});
+    _ = check 'client->publish("mqtt/routingtest/room1/humidity", {payload: "40".toBytes()});
+    runtime:sleep(1);
+
+    addListenerAndClientToArray('listener, 'client);
+
+    string[] temperatureTopics;
+    string[] otherTopics;
+    lock {
+        temperatureTopics = temperatureMessages.clone();
+    }
+    lock {
+        otherTopics = otherSensorMessages.clone();
+    }
+    test:assertEquals(temperatureTopics, ["mqtt/routingtest/room1/temperature"]);
+    test:assertEquals(otherTopics, ["mqtt/routingtest/room1/humidity"]);
+}
+
+@test:Config {enable: true}
+function attachWithInvalidTopicFilterTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/routingtest/#");
+    Error? result = 'listener.attach(@ServiceConfig {topicFilters: ["mqtt/routingtest/#/invalid"]} service object {
+        isolated remote function onMessage(Message message) returns error? {
+        }
+    });
+    test:assertTrue(result is Error);
+    addListenerAndClientToArray('listener);
+}
+
+isolated int[] batchSizes = [];
+
+@test:Config {enable: true}
+function onMessagesBatchTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/batchservicetest", {
+        batchConfig: {
+            maxMessages: 3,
+            lingerTime: 0.5
+        }
+    });
+    check 'listener.attach(service object {
+        isolated remote function onMessages(Message[] messages, Caller caller) returns error? {
+            lock {
+                batchSizes.push(messages.length());
+            }
+        }
+    });
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    foreach int i in 0 ..< 5 {
+        _ = check 'client->publish("mqtt/batchservicetest", {payload: ("Test message " + i.toString()).toBytes()});
+    }
+    runtime:sleep(1);
+
+    addListenerAndClientToArray('listener, 'client);
+
+    int[] actual;
+    lock {
+        actual = batchSizes.clone();
+    }
+    test:assertEquals(actual, [3, 2]);
+}
+
+isolated int sharedGroupMessageCount = 0;
+
+@test:Config {enable: true}
+function sharedGroupSubscriptionTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(),
+        {topic: "mqtt/sharedgrouptest", sharedGroup: "sharedgroup1"});
+    check 'listener.attach(service object {
+        isolated remote function onMessage(Message message) returns error? {
+            lock {
+                sharedGroupMessageCount += 1;
+            }
+        }
+    }, "$share/sharedgroup1/mqtt/sharedgrouptest");
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    foreach int i in 0 ..< 3 {
+        _ = check 'client->publish("mqtt/sharedgrouptest", {payload: ("Test message " + i.toString()).toBytes()});
+    }
+    runtime:sleep(1);
+
+    addListenerAndClientToArray('listener, 'client);
+
+    int count;
+    lock {
+        count = sharedGroupMessageCount;
+    }
+    test:assertEquals(count, 3);
+}
+
+@test:Config {enable: true}
+function sharedGroupWithInvalidNameTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(),
+        {topic: "mqtt/sharedgrouptest", sharedGroup: "invalid/group"});
+    check 'listener.attach(basicService);
+    Error? result = 'listener.'start();
+    test:assertTrue(result is Error);
+    addListenerAndClientToArray('listener);
+}
+
+@test:Config {enable: true}
+function ackMetricsTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/ackmetricstest",
+        {manualAcks: true});
+    Service ackMetricsService = service object {
+        remote function onMessage(Message message, Caller caller) returns error? {
+            check caller->complete();
+        }
+    };
+    check 'listener.attach(ackMetricsService);
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    foreach int i in 0 ..< 3 {
+        _ = check 'client->publish("mqtt/ackmetricstest", {payload: string `Ack ${i}`.toBytes(), qos: 1});
+    }
+    runtime:sleep(1);
+
+    ListenerMetrics metrics = 'listener.getMetrics();
+    addListenerAndClientToArray('listener, 'client);
+
+    test:assertEquals(metrics.completedAcks, 3);
+    test:assertTrue(metrics.maxAckLatency >= metrics.averageAckLatency);
+}
+
+@test:Config {enable: true}
+function batchLargerThanInflightMessagesTest() returns error? {
+    Listener|Error result = new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/largebatchtest",
+        {maxInflightMessages: 10, batchConfig: {maxMessages: 20}});
+    test:assertTrue(result is Error);
+}
+
+type BoundOrder record {|
+    string id;
+    decimal amount;
+|};
+
+type BoundOrderMessage record {|
+    *Message;
+    BoundOrder content;
+|};
+
+isolated BoundOrder[] boundOrders = [];
+isolated string[] boundOrderTopics = [];
+isolated string bindingError = "";
+
+@test:Config {enable: true}
+function payloadBindingTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/payloadbindingtest/#");
+    check 'listener.attach(service object {
+        isolated remote function onMessage(BoundOrder payload) returns error? {
+            lock {
+                boundOrders.push(payload.clone());
+            }
+        }
+
+        isolated remote function onError(Error err) returns error? {
+            lock {
+                bindingError = err.message();
+            }
+        }
+    }, "mqtt/payloadbindingtest/orders");
+    check 'listener.attach(service object {
+        isolated remote function onMessage(BoundOrderMessage message) returns error? {
+            lock {
+                boundOrderTopics.push(message.topic ?: "");
+            }
+        }
+    }, "mqtt/payloadbindingtest/messages");
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    BoundOrder 'order = {id: "order-1", amount: 12.5};
+    _ = check 'client->publish("mqtt/payloadbindingtest/orders", {payload: 'order.toJsonString().toBytes()});
+    _ = check 'client->publish("mqtt/payloadbindingtest/orders", {payload: "not an order".toBytes()});
+    _ = check 'client->publish("mqtt/payloadbindingtest/messages", {payload: 'order.toJsonString().toBytes()});
+    runtime:sleep(1);
+
+    addListenerAndClientToArray('listener, 'client);
+
+    BoundOrder[] orders;
+    string[] topics;
+    string errorMessage;
+    lock {
+        orders = boundOrders.clone();
+    }
+    lock {
+        topics = boundOrderTopics.clone();
+    }
+    lock {
+        errorMessage = bindingError;
+    }
+    test:assertEquals(orders, ['order]);
+    test:assertEquals(topics, ["mqtt/payloadbindingtest/messages"]);
+    test:assertTrue(errorMessage.startsWith("Failed to bind the payload"));
+}
+
+@test:Config {enable: true}
+function receiveWithPayloadBindingTest() returns error? {
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    check 'client->subscribe("mqtt/receivebindingtest/#");
+    stream<BoundOrder, error?> orderStream = check 'client->receive("mqtt/receivebindingtest/orders");
+    stream<string, error?> textStream = check 'client->receive("mqtt/receivebindingtest/text");
+    BoundOrder 'order = {id: "order-2", amount: 7.25};
+    _ = check 'client->publish("mqtt/receivebindingtest/orders", {payload: 'order.toJsonString().toBytes()});
+    _ = check 'client->publish("mqtt/receivebindingtest/text", {payload: "Test text".toBytes()});
+    _ = check 'client->publish("mqtt/receivebindingtest/orders", {payload: "not an order".toBytes()});
+    runtime:sleep(1);
+
+    record {|BoundOrder value;|}? orderValue = check orderStream.next();
+    test:assertEquals(orderValue, {value: 'order});
+    record {|string value;|}? textValue = check textStream.next();
+    test:assertEquals(textValue, {value: "Test text"});
+    record {|BoundOrder value;|}|error? invalidValue = orderStream.next();
+    test:assertTrue(invalidValue is Error);
+
+    addListenerAndClientToArray((), 'client);
+}
+
+isolated string[] inflightMessages = [];
+
+@test:Config {enable: true}
+function maxInflightMessagesTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/maxinflighttest",
+        {maxInflightMessages: 1});
+    check 'listener.attach(service object {
+        isolated remote function onMessage(Message message) returns error? {
+            runtime:sleep(0.1);
+            string payload = check string:fromBytes(message.payload);
+            lock {
+                inflightMessages.push(payload);
+            }
+        }
+    });
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    string[] expected = [];
+    foreach int i in 0 ..< 5 {
+        string message = string `In-flight message ${i}`;
+        expected.push(message);
+        _ = check 'client->publish("mqtt/maxinflighttest", {payload: message.toBytes()});
+    }
+    runtime:sleep(2);
+
+    addListenerAndClientToArray('listener, 'client);
+
+    string[] actual;
+    lock {
+        actual = inflightMessages.clone();
+    }
+    test:assertEquals(actual, expected);
+}
+
+@test:Config {enable: true}
+function invalidMaxInflightMessagesTest() returns error? {
+    Listener|Error result = new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/invalidinflighttest",
+        {maxInflightMessages: 0});
+    test:assertTrue(result is Error);
+}
+
+isolated int retryAttempts = 0;
+
+@test:Config {enable: true}
+function retryFailedMessageTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/retrytest",
+        {retryConfig: {maxAttempts: 3, interval: 0.1}});
+    check 'listener.attach(service object {
+        isolated remote function onMessage(Message message) returns error? {
+            lock {
+                retryAttempts += 1;
+                if retryAttempts < 3 {
+                    return error("Failed to handle the message");
+                }
+            }
+        }
+    });
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    _ = check 'client->publish("mqtt/retrytest", {payload: "Test message for retries".toBytes()});
+    runtime:sleep(2);
+
+    ListenerMetrics metrics = 'listener.getMetrics();
+    addListenerAndClientToArray('listener, 'client);
+
+    int attempts;
+    lock {
+        attempts = retryAttempts;
+    }
+    test:assertEquals(attempts, 3);
+    test:assertEquals(metrics.retriedMessages, 2);
+    test:assertEquals(metrics.deadLetteredMessages, 0);
+}
+
+@test:Config {enable: true}
+function deadLetterTopicTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/deadlettertest/in",
+        {retryConfig: {maxAttempts: 2, interval: 0.1, deadLetterTopic: "mqtt/deadlettertest/dlq"}});
+    check 'listener.attach(service object {
+        isolated remote function onMessage(Message message) returns error? {
+            return error("Failed to handle the message");
+        }
+    });
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    check 'client->subscribe("mqtt/deadlettertest/dlq");
+    stream<Message, error?> deadLetterStream = check 'client->receive();
+    _ = check 'client->publish("mqtt/deadlettertest/in", {payload: "Test poison message".toBytes()});
+    runtime:sleep(2);
+
+    record {|Message value;|}? deadLetter = check deadLetterStream.next();
+    ListenerMetrics metrics = 'listener.getMetrics();
+    addListenerAndClientToArray('listener, 'client);
+
+    test:assertTrue(deadLetter is record {|Message value;|});
+    if deadLetter is record {|Message value;|} {
+        test:assertEquals(check string:fromBytes(deadLetter.value.payload), "Test poison message");
+    }
+    test:assertEquals(metrics.retriedMessages, 1);
+    test:assertEquals(metrics.deadLetteredMessages, 1);
+}
+
+@test:Config {enable: true}
+function invalidRetryConfigTest() returns error? {
+    Listener|Error result = new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/invalidretrytest",
+        {retryConfig: {maxAttempts: 0}});
+    test:assertTrue(result is Error);
+}
+
+isolated int drainedMessages = 0;
+
+@test:Config {enable: true}
+function gracefulStopDrainTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/draintest",
+        {drainTimeout: 5});
+    check 'listener.attach(service object {
+        isolated remote function onMessage(Message message) returns error? {
+            runtime:sleep(0.5);
+            lock {
+                drainedMessages += 1;
+            }
+        }
+    });
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    foreach int i in 0 ..< 3 {
+        _ = check 'client->publish("mqtt/draintest", {payload: string `Drain message ${i}`.toBytes(), qos: 1});
+    }
+    runtime:sleep(0.2);
+    check 'listener.gracefulStop();
+
+    addListenerAndClientToArray('client = 'client);
+
+    int handled;
+    lock {
+        handled = drainedMessages;
+    }
+    test:assertEquals(handled, 3);
+}
+
+@test:Config {enable: true}
+function gracefulStopDrainTimeoutTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/draintimeouttest",
+        {drainTimeout: 0.2});
+    check 'listener.attach(service object {
+        isolated remote function onMessage(Message message) returns error? {
+            runtime:sleep(2);
+        }
+    });
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    _ = check 'client->publish("mqtt/draintimeouttest", {payload: "Slow message".toBytes(), qos: 1});
+    runtime:sleep(0.2);
+    Error? result = 'listener.gracefulStop();
+
+    addListenerAndClientToArray('client = 'client);
+    test:assertTrue(result is Error);
+}
+
+@test:Config {enable: true}
+function invalidDrainTimeoutTest() returns error? {
+    Listener|Error result = new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/invaliddraintest",
+        {drainTimeout: -1});
+    test:assertTrue(result is Error);
+}
+
+@test:Config {enable: true}
+function qos0PublishWithInflightWindowTest() returns error? {
+    Client subscriber = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    check subscriber->subscribe("mqtt/qos0inflighttest");
+    stream<Message, error?> respStream = check subscriber->receive();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), {
+        inflightConfig: {
+            maxInflight: 2,
+            backpressurePolicy: BLOCK
+        }
+    });
+    foreach int i in 0 ..< 100 {
+        DeliveryToken token = check 'client->publish("mqtt/qos0inflighttest",
+            {payload: ("Test message " + i.toString()).toBytes(), qos: 0});
+        test:assertEquals(token.messageId, 0);
+    }
+
+    foreach int i in 0 ..< 100 {
+        record {|Message value;|} val = <record {|Message value;|}>check respStream.next();
+        test:assertEquals(check string:fromBytes(val.value.payload), "Test message " + i.toString());
+    }
+
+    addListenerAndClientToArray((), 'client);
+    addListenerAndClientToArray((), subscriber);
+}
+
+@test:Config {enable: true}
+function publishWithFailBackpressureTest() returns error? {
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), {
+        inflightConfig: {
+            maxInflight: 1,
+            backpressurePolicy: FAIL
+        }
+    });
+    PublishFuture|Error first = 'client->publishAsync("mqtt/failbackpressuretest", {payload: "First".toBytes(), qos: 2});
+    PublishFuture|Error second = 'client->publishAsync("mqtt/failbackpressuretest", {payload: "Second".toBytes(), qos: 2});
+    test:assertTrue(first is PublishFuture);
+    if second !is Error {
+        test:assertFail("Expected the publish to fail while the in-flight window is full");
+    }
+    test:assertTrue(second.message().includes("In-flight window of 1 messages is full"));
+
+    _ = check (check first).get(5);
+    DeliveryToken token = check 'client->publish("mqtt/failbackpressuretest", {payload: "Third".toBytes()});
+    test:assertEquals(token.topic, "mqtt/failbackpressuretest");
+    addListenerAndClientToArray((), 'client);
+}
+
+@test:Config {enable: true}
+function publishWithQueueBackpressureTest() returns error? {
+    Client queueingClient = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), {
+        inflightConfig: {
+            maxInflight: 1,
+            backpressurePolicy: QUEUE,
+            maxQueued: 1
+        }
+    });
+    PublishFuture[] publishFutures = [];
+    foreach int i in 0 ..< 5 {
+        publishFutures.push(check queueingClient->publishAsync("mqtt/queuebackpressuretest",
+            {payload: ("Test message " + i.toString()).toBytes(), qos: 2}));
+    }
+    foreach PublishFuture publishFuture in publishFutures {
+        _ = check publishFuture.get(5);
+    }
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), {
+        inflightConfig: {
+            maxInflight: 1,
+            backpressurePolicy: QUEUE,
+            maxQueued: 0
+        }
+    });
+    PublishFuture|Error first = 'client->publishAsync("mqtt/queuebackpressuretest", {payload: "First".toBytes(), qos: 2});
+    PublishFuture|Error second = 'client->publishAsync("mqtt/queuebackpressuretest", {payload: "Second".toBytes(), qos: 2});
+    test:assertTrue(first is PublishFuture);
+    if second !is Error {
+        test:assertFail("Expected the publish to fail while the publish queue is full");
+    }
+    test:assertTrue(second.message().includes("Publish queue of 0 messages is full"));
+
+    addListenerAndClientToArray((), queueingClient);
+    addListenerAndClientToArray((), 'client);
+}
+
+@test:Config {enable: true}
+function inflightWindowReleasedOnFailedPublishTest() returns error? {
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), {
+        inflightConfig: {
+            maxInflight: 1,
+            backpressurePolicy: FAIL
+        }
+    });
+    DeliveryToken|Error result = 'client->publish("mqtt/#/invalid", {payload: "Invalid".toBytes()});
+    test:assertTrue(result is Error);
+
+    DeliveryToken token = check 'client->publish("mqtt/windowreleasetest", {payload: "Valid".toBytes()});
+    test:assertEquals(token.topic, "mqtt/windowreleasetest");
+    addListenerAndClientToArray((), 'client);
+}
+
+@test:Config {enable: true}
+function invalidMaxInflightTest() returns error? {
+    Client|Error result = new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), {inflightConfig: {maxInflight: 0}});
+    test:assertTrue(result is Error);
+}
@@ -263,3 +263,63 @@ function readResponse(stream<Message, error?> respStream, string[] receivedValue
         }
     }
 }
+
+final string[] lazyPropertiesResults = [];
+
+final Service lazyPropertiesService = service object {
+    remote function onMessage(Message message, Caller caller) returns error? {
+        lazyPropertiesResults.push((message.properties is ()).toString());
+        MessageProperties properties = caller.getProperties();
+        lazyPropertiesResults.push(properties.responseTopic ?: "");
+    }
+
+    remote function onError(Error err) returns error? {
+        log:printError("Error occured ", err);
+    }
+};
+
+@test:Config {enable: true}
+function lazyPropertiesTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/request/lazypropertiestest", {lazyProperties: true});
+    check 'listener.attach(lazyPropertiesService);
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    _ = check 'client->publish("mqtt/request/lazypropertiestest", {payload: "Test message for lazy properties test".toBytes(), properties: {responseTopic: "mqtt/response/lazypropertiestest"}});
+    runtime:sleep(1);
+
+    addListenerAndClientToArray('listener, 'client);
+
+    lock {
+        test:assertEquals(lazyPropertiesResults, ["true", "mqtt/response/lazypropertiestest"]);
+    }
+}
+
+final string[] lazyPropertiesWithoutCallerResults = [];
+
+final Service lazyPropertiesWithoutCallerService = service object {
+    remote function onMessage(Message message) returns error? {
+        lazyPropertiesWithoutCallerResults.push(message.properties?.responseTopic ?: "");
+    }
+
+    remote function onError(Error err) returns error? {
+        log:printError("Error occured ", err);
+    }
+};
+
+@test:Config {enable: true}
+function lazyPropertiesWithoutCallerTest() returns error? {
+    Listener 'listener = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString(), "mqtt/request/lazypropertiesnocallertest", {lazyProperties: true});
+    check 'listener.attach(lazyPropertiesWithoutCallerService);
+    check 'listener.'start();
+
+    Client 'client = check new (NO_AUTH_ENDPOINT, uuid:createType1AsString());
+    _ = check 'client->publish("mqtt/request/lazypropertiesnocallertest", {payload: "Test message for lazy properties test".toBytes(), properties: {responseTopic: "mqtt/response/lazypropertiesnocallertest"}});
+    runtime:sleep(1);
+
+    addListenerAndClientToArray('listener, 'client);
+
+    lock {
+        test:assertEquals(lazyPropertiesWithoutCallerResults, ["mqtt/response/lazypropertiesnocallertest"]);
+    }
+}
@@ -45,24 +45,182 @@ public type MessageProperties record {|
     byte[] correlationData?;
 |};
 
+# A message to be published to a topic as a part of a batch.
+#
+# + topic - Topic to publish the message to
+# + message - Message to publish
+public type PublishRequest record {|
+    string topic;
+    Message message;
+|};
+
 # The configurations related to the client initialization.
 #
 # + connectionConfig - The related connection configuration  
 # + willDetails - The configurations related to the last will message of the client
+# + inflightConfig - The configurations related to the published messages that are waiting for an acknowledgement. If
+# not provided, the window is sized to the receive maximum of the server and a publish waits for a free slot
+# + receiveQueueConfig - The configurations related to the queue of received messages. The queue is unbounded if not
+# provided
 public type ClientConfiguration record {|
     ConnectionConfiguration connectionConfig?;
     WillDetails willDetails?; 
+    InflightConfiguration inflightConfig?;
+    ReceiveQueueConfiguration receiveQueueConfig?;
+|};
+
+# The configurations related to the QoS 1 and QoS 2 messages published by the client that are waiting for an
+# acknowledgement from the server. QoS 0 messages also take a slot of the window until they are written to the
+# network, which bounds how many of them can be queued on the connection.
+#
+# + maxInflight - Maximum number of messages that can wait for an acknowledgement at once. This should be positive and
+# is capped at the receive maximum the server advertises when the client connects or reconnects
+# + backpressurePolicy - The behaviour of a publish when the in-flight window is full
+# + maxQueued - Maximum number of publishes that can wait for a free slot in the window when the policy is `QUEUE`
+public type InflightConfiguration record {|
+    int maxInflight = 100;
+    BackpressurePolicy backpressurePolicy = BLOCK;
+    int maxQueued = 1000;
+|};
+
+# Represents the behaviour of a publish when the in-flight window of the client is full.
+# `BLOCK` waits for a free slot, `FAIL` returns an `mqtt:Error` right away, and `QUEUE` waits for a free slot while at
+# most `maxQueued` publishes are waiting and returns an `mqtt:Error` for the rest.
+public enum BackpressurePolicy {
+    BLOCK,
+    FAIL,
+    QUEUE
+}
+
+# The configurations related to the queue that holds the messages received by the client until they are read through
+# `mqtt:Client->receive()`.
+#
+# + capacity - Maximum number of messages that the queue can hold. This should be positive
+# + overflowPolicy - The behaviour when a message is received while the queue is full
+# + waitStrategy - If provided, the messages are held in a ring buffer that is preallocated for `capacity` messages,
+# up to 65536, and does not take a lock, and waiting for a message or a free slot follows this strategy
+public type ReceiveQueueConfiguration record {|
+    int capacity = 1000;
+    OverflowPolicy overflowPolicy = BLOCK;
+    WaitStrategy waitStrategy?;
+|};
+
+# Represents how a reader waits for a message, or the client waits for a free slot, in a ring buffer receive queue.
+# Before blocking until it is signalled, `SPIN` busy-waits for a short while for the lowest latency at the cost of CPU
+# time, `YIELD` checks again a few times while yielding the thread, and `PARK` blocks right away.
+public enum WaitStrategy {
+    SPIN,
+    YIELD,
+    PARK
+}
+
+# Drops the oldest message in the receive queue to make room for the received message.
+public const DROP_OLDEST = "DROP_OLDEST";
+
+# Drops the received message when the receive queue is full.
+public const DROP_NEWEST = "DROP_NEWEST";
+
+# Represents the behaviour when a message is received while the receive queue of the client is full.
+# `BLOCK` holds the network thread of the client until there is space in the queue, which also holds the delivery
+# acknowledgements of published messages. `DROP_OLDEST` and `DROP_NEWEST` drop a message and count it in the
+# `droppedMessages` metric. `FAIL` closes the connection and the receive streams return an `mqtt:Error` once the
+# queued messages are read.
+public type OverflowPolicy BLOCK|DROP_OLDEST|DROP_NEWEST|FAIL;
+
+# Represents the metrics of the messages received by a client.
+#
+# + queuedMessages - Number of received messages waiting to be read
+# + droppedMessages - Number of received messages that were dropped because a receive queue was full or no stream
+# would read them
+public type ClientMetrics record {|
+    int queuedMessages;
+    int droppedMessages;
 |};
 
 # The configurations related to the listener initialization.
 #
 # + connectionConfig - The related connection configuration
 # + manualAcks - Indicates whether or not the client should automatically ack messages
+# + lazyProperties - Indicates whether the properties of a received message are left out of the `mqtt:Message` and
+# only converted when they are read through `mqtt:Caller`. This only applies to an `onMessage` that takes an
+# `mqtt:Caller`, as the properties cannot be read otherwise
+# + concurrency - Maximum number of received messages that are handled at once. With the default of 1, the messages
+# are handled one at a time in the order they were received
+# + ordering - The order in which the received messages are handled when `concurrency` is more than 1
+# + maxInflightMessages - Maximum number of received messages that are waiting for or being handled by the services.
+# Once reached, the listener stops reading messages from the network until one of them is handled
+# + batchConfig - The configurations of the batches delivered to services with an `onMessages` remote method
+# + retryConfig - The configurations of retrying the messages that `onMessage` fails to handle. Without it, a message
+# is attempted once
+# + drainTimeout - Maximum time in seconds that `gracefulStop`, or detaching the last service, waits for the received
+# messages to be handled before it disconnects
 public type ListenerConfiguration record {|
     ConnectionConfiguration connectionConfig?;
     boolean manualAcks = false;
+    boolean lazyProperties = false;
+    int concurrency = 1;
+    Ordering ordering = PER_TOPIC;
+    int maxInflightMessages = 100;
+    BatchConfiguration batchConfig = {};
+    RetryConfiguration retryConfig?;
+    decimal drainTimeout = 10;
+|};
+
+# The configurations of the batches of messages delivered to the `onMessages` remote method of a service. A batch is
+# delivered once it reaches `maxMessages` or once its first message has waited for `lingerTime`, whichever is first.
+#
+# + maxMessages - Maximum number of messages in a batch, which cannot exceed the `maxInflightMessages` of the listener
+# + lingerTime - Maximum time in seconds that a received message waits for the batch to fill up
+public type BatchConfiguration record {|
+    int maxMessages = 100;
+    decimal lingerTime = 0.1;
+|};
+
+# The configurations of retrying a message when `onMessage` returns an error or panics. A failed attempt is retried
+# after `interval` seconds, which grows by `backoffFactor` with each attempt up to `maxInterval`, and the messages
+# handled in order after it wait until it is done. Once `maxAttempts` attempts have failed, the last error is reported
+# to `onError`, the message is published to the `deadLetterTopic` if there is one, and it is acknowledged even with
+# `manualAcks`.
+#
+# + maxAttempts - Maximum number of times `onMessage` is called for a message, including the first attempt
+# + interval - Time in seconds to wait before the first retry
+# + backoffFactor - Factor by which the interval grows with each retry
+# + maxInterval - Maximum time in seconds to wait before a retry
+# + deadLetterTopic - The topic that the messages are published to once all the attempts fail
+public type RetryConfiguration record {|
+    int maxAttempts = 3;
+    decimal interval = 1;
+    decimal backoffFactor = 2.0;
+    decimal maxInterval = 30;
+    string deadLetterTopic?;
 |};
 
+# Represents the metrics of the acknowledgements and retries of a listener.
+#
+# + completedAcks - Number of messages acknowledged so far
+# + averageAckLatency - Average time in seconds from receiving a message to acknowledging it
+# + maxAckLatency - Maximum time in seconds from receiving a message to acknowledging it
+# + retriedMessages - Number of times `onMessage` was retried for a message
+# + deadLetteredMessages - Number of messages published to the dead letter topic
+public type ListenerMetrics record {|
+    int completedAcks;
+    decimal averageAckLatency;
+    decimal maxAckLatency;
+    int retriedMessages;
+    int deadLetteredMessages;
+|};
+
+# Represents the order in which a listener handles the received messages when its `concurrency` is more than 1.
+# `PER_TOPIC` handles the messages of a topic one at a time in the order they were received, while messages of
+# different topics are handled in parallel, so that a slow handler only holds back the messages of its own topic.
+# `GLOBAL` handles all the messages one at a time in the order they were
+# received. `NONE` handles the messages in parallel without any order.
+public enum Ordering {
+    PER_TOPIC,
+    GLOBAL,
+    NONE
+}
+
 # The configurations related to the connection initialization of `mqtt:Client` and `mqtt:Listener`.
 #
 # + username - The username to use for the connection  
@@ -74,6 +232,8 @@ public type ListenerConfiguration record {|
 # + cleanStart - Whether the client and server should remember state for the client across reconnects
 # + serverUris - List of serverURIs the client may connect to  
 # + automaticReconnect - Whether the client will automatically attempt to reconnect to the server if the connection is lost
+# + receiveMaximum - Maximum number of QoS 1 and QoS 2 messages the server can send to the client at once without
+# being acknowledged
 public type ConnectionConfiguration record {|
     string username?;
     string password?;
@@ -84,6 +244,7 @@ public type ConnectionConfiguration record {|
     boolean cleanStart?;
     string[] serverUris?;
     boolean automaticReconnect?;
+    int receiveMaximum?;
 |};
 
 # The configurations related to the last will message of the client.
@@ -99,9 +260,12 @@ public type WillDetails record {|
 #
 # + topic - The topic to subscribe to
 # + qos - The QoS level to subscribe at
+# + sharedGroup - The name of the shared subscription group to subscribe in. The server delivers each message of a
+# shared subscription to only one of the subscribers of the group. The name should not contain `/`, `+` or `#`
 public type Subscription record {|
     string topic;
     int qos = 1;
+    string sharedGroup?;
 |};
 
 # The mechanism for tracking the delivery of a message
@@ -150,18 +314,18 @@ isolated class StreamIterator {
 
     # Returns the next message in the stream.
     #
-    # + return - `record{|Message value;|}` or else `error?` if the stream is closed or any error occurred while retrieving the next message
-    public isolated function next() returns record {|Message value;|}|Error? {
+    # + return - `record{|anydata value;|}` or else `error?` if the stream is closed or any error occurred while retrieving the next message
+    public isolated function next() returns record {|anydata value;|}|Error? {
         lock {
             if self.isClosed {
                 return error Error("Stream is closed. Therefore, no operations are allowed further on the stream.");
             }
         }
-        Message|Error? result = self.nextResult();
-        if result is Message {
-            return {value: result};
+        anydata|Error? result = self.nextResult();
+        if result is Error? {
+            return result;
         }
-        return result;
+        return {value: result};
     }
 
     # Closes the stream.
@@ -178,7 +342,7 @@ isolated class StreamIterator {
         }
     }
 
-    isolated function nextResult() returns Message|Error? =
+    isolated function nextResult() returns anydata|Error? =
     @java:Method {
         'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
     } external;
@@ -189,5 +353,92 @@ isolated class StreamIterator {
     } external;
 }
 
+# The stream iterator object that is used to iterate through the batches of stream messages.
+isolated class BatchStreamIterator {
+    private boolean isClosed = false;
+
+    # Returns the next batch of messages in the stream.
+    #
+    # + return - `record{|Message[] value;|}` or else `error?` if the stream is closed or any error occurred while retrieving the next batch
+    public isolated function next() returns record {|Message[] value;|}|Error? {
+        lock {
+            if self.isClosed {
+                return error Error("Stream is closed. Therefore, no operations are allowed further on the stream.");
+            }
+        }
+        Message[] messages = [];
+        check self.nextBatch(messages);
+        return {value: messages};
+    }
+
+    # Closes the stream.
+    #
+    # + return - `error` if any error occurred while closing the stream or else `()`
+    public isolated function close() returns error? {
+        lock {
+            if !self.isClosed {
+                self.isClosed = true;
+                return self.closeStream();
+            } else {
+                return error Error("Stream is closed. Therefore, no operations are allowed further on the stream.");
+            }
+        }
+    }
+
+    isolated function nextBatch(Message[] messages) returns Error? =
+    @java:Method {
+        'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
+    } external;
+
+    isolated function closeStream() =
+    @java:Method {
+        'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
+    } external;
+}
+
+# Represents the delivery of a message published using `mqtt:Client->publishAsync()`.
+public isolated class PublishFuture {
+
+    # A `PublishFuture` is only created by `mqtt:Client->publishAsync()`, which binds it to the delivery of the message.
+    isolated function init() {
+    }
+
+    # Waits for the delivery of the message to complete.
+    # ```ballerina
+    # mqtt:DeliveryToken token = check publishFuture.get(5);
+    # ```
+    #
+    # + timeout - Maximum time to wait for the delivery in seconds. Waits until the delivery completes if not provided
+    # + return - `mqtt:DeliveryToken` or else `mqtt:Error` if the publish failed or the timeout elapsed
+    public isolated function get(decimal? timeout = ()) returns DeliveryToken|Error =
+    @java:Method {
+        name: "getDeliveryToken",
+        'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
+    } external;
+
+    # Checks whether the delivery of the message has completed, either successfully or with an error.
+    # ```ballerina
+    # boolean isDone = publishFuture.isDone();
+    # ```
+    #
+    # + return - `true` if the delivery has completed or else `false`
+    public isolated function isDone() returns boolean =
+    @java:Method {
+        name: "isDeliveryComplete",
+        'class: "io.ballerina.stdlib.mqtt.client.ClientActions"
+    } external;
+}
+
 # The MQTT service type.
 public type Service distinct service object {};
+
+# The configurations of an MQTT service.
+#
+# + topicFilters - The topic filters of the messages routed to the service. A service without topic filters receives 
+#                  the messages that no other service of the listener is configured for
+public type ServiceConfiguration record {|
+    string|string[] topicFilters;
+|};
+
+# The annotation to configure an MQTT service.
+public annotation ServiceConfiguration ServiceConfig on service;
@@ -31,6 +31,7 @@ import java.util.List;
 import static io.ballerina.stdlib.mqtt.compiler.CompilerPluginTestUtils.BALLERINA_SOURCES;
 import static io.ballerina.stdlib.mqtt.compiler.CompilerPluginTestUtils.EXPECTED_SOURCES;
 import static io.ballerina.stdlib.mqtt.compiler.CompilerPluginTestUtils.RESOURCE_DIRECTORY;
+import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CODE_TEMPLATE_NAME_FOR_BATCH;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CODE_TEMPLATE_NAME_WITHOUT_CALLER;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CODE_TEMPLATE_NAME_WITH_CALLER;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.NODE_LOCATION;
@@ -94,6 +95,19 @@ public class CodeSnippetGenerationCodeActionTest extends AbstractCodeActionTest
                         CODE_TEMPLATE_NAME_WITHOUT_CALLER), resultPath);
     }
 
+    @Test
+    public void testEmptyServiceCodeActionForBatch() throws IOException {
+        Path filePath = RESOURCE_DIRECTORY.resolve(BALLERINA_SOURCES)
+                .resolve("snippet_gen_service_1")
+                .resolve("service.bal");
+        Path resultPath = RESOURCE_DIRECTORY.resolve(EXPECTED_SOURCES)
+                .resolve("service_5")
+                .resolve("result.bal");
+        performTest(filePath, LinePosition.from(13, 0),
+                getExpectedCodeAction("service.bal", 13, 28, "Insert batch service template",
+                        CODE_TEMPLATE_NAME_FOR_BATCH), resultPath);
+    }
+
     private CodeActionInfo getExpectedCodeAction(String filePath, int line, int offset,
                                                  String actionName, String templateName) {
         LineRange lineRange = LineRange.from(filePath, LinePosition.from(13, 0),
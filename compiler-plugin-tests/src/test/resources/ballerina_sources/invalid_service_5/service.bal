@@ -28,16 +28,16 @@ mqtt:ListenerConfiguration listenerConfiguration = {
 listener mqtt:Listener mqttSubscriber = check new (mqtt:DEFAULT_URL, uuid:createType1AsString(), "mqtt/test", listenerConfiguration);
 
 service on mqttSubscriber {
-    remote function onMessage(string someval, mqtt:Caller caller) {
+    remote function onMessage(error someval, mqtt:Caller caller) {
     }
 }
 
 service on mqttSubscriber {
-    remote function onMessage(mqtt:Message[] messages, mqtt:Caller caller) {
+    remote function onMessage(mqtt:Client mqttClient, mqtt:Caller caller) {
     }
 }
 
 service on mqttSubscriber {
-    remote function onMessage(mqtt:Subscription subscription, mqtt:Caller caller) {
+    remote function onMessage(function () callback, mqtt:Caller caller) {
     }
 }
@@ -31,5 +31,6 @@ public class MqttCompilerPlugin extends CompilerPlugin {
         compilerPluginContext.addCodeAnalyzer(new MqttServiceAnalyzer());
         compilerPluginContext.addCodeAction(new MqttCodeTemplateWithCallerParameter());
         compilerPluginContext.addCodeAction(new MqttCodeTemplateWithoutCallerParameter());
+        compilerPluginContext.addCodeAction(new MqttCodeTemplateForBatch());
     }
 }
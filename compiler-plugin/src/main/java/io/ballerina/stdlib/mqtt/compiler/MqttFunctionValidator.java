@@ -20,11 +20,13 @@ package io.ballerina.stdlib.mqtt.compiler;
 
 import io.ballerina.compiler.api.SemanticModel;
 import io.ballerina.compiler.api.symbols.MethodSymbol;
+import io.ballerina.compiler.api.symbols.ParameterSymbol;
 import io.ballerina.compiler.api.symbols.Symbol;
 import io.ballerina.compiler.api.symbols.TypeDescKind;
 import io.ballerina.compiler.api.symbols.TypeReferenceTypeSymbol;
 import io.ballerina.compiler.api.symbols.TypeSymbol;
 import io.ballerina.compiler.api.symbols.UnionTypeSymbol;
+import io.ballerina.compiler.syntax.tree.ArrayTypeDescriptorNode;
 import io.ballerina.compiler.syntax.tree.FunctionDefinitionNode;
 import io.ballerina.compiler.syntax.tree.Node;
 import io.ballerina.compiler.syntax.tree.ParameterNode;
@@ -40,6 +42,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
+import static io.ballerina.compiler.syntax.tree.SyntaxKind.ARRAY_TYPE_DESC;
 import static io.ballerina.compiler.syntax.tree.SyntaxKind.ERROR_TYPE_DESC;
 import static io.ballerina.compiler.syntax.tree.SyntaxKind.QUALIFIED_NAME_REFERENCE;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CALLER;
@@ -47,15 +50,19 @@ import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationError
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.INVALID_CALLER_PARAMETER;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.INVALID_DELIVERY_TOKEN_PARAM_COUNT;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.INVALID_ERROR_PARAM_COUNT;
+import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.INVALID_MESSAGES_PARAMETER;
+import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.INVALID_MESSAGES_PARAM_COUNT;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.INVALID_MESSAGE_PARAMETER;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.INVALID_PARAM_COUNT;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.INVALID_RETURN_TYPE_ERROR_OR_NIL;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.MUST_HAVE_CALLER_AND_MESSAGE;
+import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.MUST_HAVE_CALLER_AND_MESSAGES;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.MUST_HAVE_DELIVERY_TOKEN;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.MUST_HAVE_ERROR;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.NO_ON_MESSAGE;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.ONLY_DELIVERY_TOKEN_ALLOWED;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.ONLY_ERROR_ALLOWED;
+import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.CompilationErrors.ON_MESSAGE_AND_ON_MESSAGES;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.DELIVERY_TOKEN;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.ERROR_PARAM;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.MESSAGE;
@@ -73,14 +80,17 @@ public class MqttFunctionValidator {
     private final ServiceDeclarationNode serviceDeclarationNode;
     private final SemanticModel semanticModel;
     private final FunctionDefinitionNode onMessage;
+    private final FunctionDefinitionNode onMessages;
     private final FunctionDefinitionNode onError;
     private final FunctionDefinitionNode onComplete;
 
     public MqttFunctionValidator(SyntaxNodeAnalysisContext context, FunctionDefinitionNode onMessage,
-                                 FunctionDefinitionNode onError, FunctionDefinitionNode onComplete) {
+                                 FunctionDefinitionNode onMessages, FunctionDefinitionNode onError,
+                                 FunctionDefinitionNode onComplete) {
         this.context = context;
         this.serviceDeclarationNode = (ServiceDeclarationNode) context.node();
         this.onMessage = onMessage;
+        this.onMessages = onMessages;
         this.onError = onError;
         this.onComplete = onComplete;
         this.semanticModel = context.semanticModel();
@@ -97,11 +107,19 @@ public class MqttFunctionValidator {
     }
 
     private void validateMandatoryFunction() {
-        if (Objects.isNull(onMessage)) {
+        if (Objects.isNull(onMessage) && Objects.isNull(onMessages)) {
             reportErrorDiagnostic(NO_ON_MESSAGE, serviceDeclarationNode.location());
             return;
         }
-        validateOnMessageFunction();
+        if (Objects.nonNull(onMessage) && Objects.nonNull(onMessages)) {
+            reportErrorDiagnostic(ON_MESSAGE_AND_ON_MESSAGES, serviceDeclarationNode.location());
+            return;
+        }
+        if (Objects.nonNull(onMessage)) {
+            validateOnMessageFunction();
+        } else {
+            validateOnMessagesFunction();
+        }
     }
 
     private void validateOnMessageFunction() {
@@ -112,6 +130,14 @@ public class MqttFunctionValidator {
         validateReturnTypeErrorOrNil(onMessage);
     }
 
+    private void validateOnMessagesFunction() {
+        if (!PluginUtils.isRemoteFunction(context, onMessages)) {
+            reportErrorDiagnostic(FUNCTION_SHOULD_BE_REMOTE, onMessages.location());
+        }
+        validateOnMessagesParameters(onMessages);
+        validateReturnTypeErrorOrNil(onMessages);
+    }
+
     private void validateOnError() {
         if (!PluginUtils.isRemoteFunction(context, onError)) {
             reportErrorDiagnostic(FUNCTION_SHOULD_BE_REMOTE, onError.location());
@@ -189,10 +215,25 @@ public class MqttFunctionValidator {
              reportErrorDiagnostic(MUST_HAVE_CALLER_AND_MESSAGE, location);
              return;
         } else if (parameters.size() == 2) {
-            validateMessageParam((RequiredParameterNode) parameters.get(0));
+            validateMessageParam(functionDefinitionNode, (RequiredParameterNode) parameters.get(0));
+            validateCallerParam((RequiredParameterNode) parameters.get(1));
+        } else {
+            validateMessageParam(functionDefinitionNode, (RequiredParameterNode) parameters.get(0));
+        }
+    }
+
+    private void validateOnMessagesParameters(FunctionDefinitionNode functionDefinitionNode) {
+        SeparatedNodeList<ParameterNode> parameters = functionDefinitionNode.functionSignature().parameters();
+        Location location = functionDefinitionNode.functionSignature().location();
+        if (parameters.size() > 2) {
+            reportErrorDiagnostic(INVALID_MESSAGES_PARAM_COUNT, location);
+        } else if (parameters.size() < 1) {
+            reportErrorDiagnostic(MUST_HAVE_CALLER_AND_MESSAGES, location);
+        } else if (parameters.size() == 2) {
+            validateMessagesParam((RequiredParameterNode) parameters.get(0));
             validateCallerParam((RequiredParameterNode) parameters.get(1));
         } else {
-            validateMessageParam((RequiredParameterNode) parameters.get(0));
+            validateMessagesParam((RequiredParameterNode) parameters.get(0));
         }
     }
 
@@ -209,19 +250,36 @@ public class MqttFunctionValidator {
         reportErrorDiagnostic(INVALID_CALLER_PARAMETER, requiredParameterNode.location());
     }
 
-    private void validateMessageParam(RequiredParameterNode requiredParameterNode) {
-        if (requiredParameterNode.typeName().kind() == QUALIFIED_NAME_REFERENCE) {
-            QualifiedNameReferenceNode referenceNode = (QualifiedNameReferenceNode) requiredParameterNode.typeName();
-            Optional<Symbol> symbol = semanticModel.symbol(referenceNode);
-            if (symbol.isPresent() && symbol.get().getName().isPresent() &&
-                    symbol.get().getName().get().equals(MESSAGE) && symbol.get().getModule().isPresent() &&
-                    validateModuleId(symbol.get().getModule().get())) {
+    private void validateMessageParam(FunctionDefinitionNode functionDefinitionNode,
+                                      RequiredParameterNode requiredParameterNode) {
+        // Besides mqtt:Message, the payload can be bound to any anydata type, which includes records that add a
+        // typed content field to mqtt:Message
+        MethodSymbol methodSymbol = getMethodSymbol(context, functionDefinitionNode);
+        if (Objects.nonNull(methodSymbol)) {
+            Optional<List<ParameterSymbol>> parameterSymbols = methodSymbol.typeDescriptor().params();
+            if (parameterSymbols.isPresent() && !parameterSymbols.get().isEmpty() &&
+                    parameterSymbols.get().get(0).typeDescriptor().subtypeOf(semanticModel.types().ANYDATA)) {
                 return;
             }
         }
         reportErrorDiagnostic(INVALID_MESSAGE_PARAMETER, requiredParameterNode.location());
     }
 
+    private void validateMessagesParam(RequiredParameterNode requiredParameterNode) {
+        if (requiredParameterNode.typeName().kind() == ARRAY_TYPE_DESC) {
+            Node memberTypeNode = ((ArrayTypeDescriptorNode) requiredParameterNode.typeName()).memberTypeDesc();
+            if (memberTypeNode.kind() == QUALIFIED_NAME_REFERENCE) {
+                Optional<Symbol> symbol = semanticModel.symbol(memberTypeNode);
+                if (symbol.isPresent() && symbol.get().getName().isPresent() &&
+                        symbol.get().getName().get().equals(MESSAGE) && symbol.get().getModule().isPresent() &&
+                        validateModuleId(symbol.get().getModule().get())) {
+                    return;
+                }
+            }
+        }
+        reportErrorDiagnostic(INVALID_MESSAGES_PARAMETER, requiredParameterNode.location());
+    }
+
     private void validateReturnTypeErrorOrNil(FunctionDefinitionNode functionDefinitionNode) {
         MethodSymbol methodSymbol = getMethodSymbol(context, functionDefinitionNode);
         if (methodSymbol != null) {
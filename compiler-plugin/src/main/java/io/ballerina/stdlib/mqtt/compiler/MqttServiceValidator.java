@@ -19,6 +19,7 @@
 package io.ballerina.stdlib.mqtt.compiler;
 
 import io.ballerina.compiler.api.symbols.MethodSymbol;
+import io.ballerina.compiler.syntax.tree.BasicLiteralNode;
 import io.ballerina.compiler.syntax.tree.FunctionDefinitionNode;
 import io.ballerina.compiler.syntax.tree.Node;
 import io.ballerina.compiler.syntax.tree.NodeList;
@@ -31,7 +32,9 @@ import io.ballerina.tools.diagnostics.DiagnosticSeverity;
 
 import java.util.Optional;
 
+import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.ON_MESSAGES_FUNC;
 import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.ON_MESSAGE_FUNC;
+import static io.ballerina.stdlib.mqtt.compiler.PluginConstants.SHARED_SUBSCRIPTION_PREFIX;
 
 /**
  * Validates a Ballerina Mqtt Service.
@@ -45,7 +48,8 @@ public class MqttServiceValidator {
         boolean hasOnMessageRemoteFunction = serviceDeclarationNode.members().stream().anyMatch(child ->
                 child.kind() == SyntaxKind.OBJECT_METHOD_DEFINITION &&
                         PluginUtils.isRemoteFunction(context, (FunctionDefinitionNode) child) &&
-                        ((FunctionDefinitionNode) child).functionName().toString().equals(ON_MESSAGE_FUNC));
+                        (((FunctionDefinitionNode) child).functionName().toString().equals(ON_MESSAGE_FUNC) ||
+                                ((FunctionDefinitionNode) child).functionName().toString().equals(ON_MESSAGES_FUNC)));
         if (serviceDeclarationNode.members().isEmpty() || !hasOnMessageRemoteFunction) {
             DiagnosticInfo diagnosticInfo = new DiagnosticInfo(
                     PluginConstants.CompilationErrors.TEMPLATE_CODE_GENERATION_HINT.getErrorCode(),
@@ -56,6 +60,7 @@ public class MqttServiceValidator {
         }
 
         FunctionDefinitionNode onMessage = null;
+        FunctionDefinitionNode onMessages = null;
         FunctionDefinitionNode onError = null;
         FunctionDefinitionNode onComplete = null;
 
@@ -67,6 +72,8 @@ public class MqttServiceValidator {
                 if (functionName.isPresent()) {
                     if (functionName.get().equals(ON_MESSAGE_FUNC)) {
                         onMessage = functionDefinitionNode;
+                    } else if (functionName.get().equals(ON_MESSAGES_FUNC)) {
+                        onMessages = functionDefinitionNode;
                     } else if (functionName.get().equals(PluginConstants.ON_ERROR_FUNC)) {
                         onError = functionDefinitionNode;
                     } else if (functionName.get().equals(PluginConstants.ON_COMPLETE_FUNC)) {
@@ -83,6 +90,24 @@ public class MqttServiceValidator {
                         DiagnosticSeverity.ERROR, node.location()));
             }
         }
-        new MqttFunctionValidator(context, onMessage, onError, onComplete).validate();
+        new MqttFunctionValidator(context, onMessage, onMessages, onError, onComplete).validate();
+        validateSharedSubscription(context, serviceDeclarationNode);
+    }
+
+    private void validateSharedSubscription(SyntaxNodeAnalysisContext context,
+                                            ServiceDeclarationNode serviceDeclarationNode) {
+        for (Node pathNode : serviceDeclarationNode.absoluteResourcePath()) {
+            if (pathNode.kind() != SyntaxKind.STRING_LITERAL) {
+                continue;
+            }
+            String literal = ((BasicLiteralNode) pathNode).literalToken().text();
+            String topicFilter = literal.substring(1, literal.length() - 1);
+            if (topicFilter.startsWith(SHARED_SUBSCRIPTION_PREFIX) &&
+                    !PluginUtils.isValidSharedSubscription(topicFilter)) {
+                context.reportDiagnostic(PluginUtils.getDiagnostic(
+                        PluginConstants.CompilationErrors.INVALID_SHARED_SUBSCRIPTION,
+                        DiagnosticSeverity.ERROR, pathNode.location()));
+            }
+        }
     }
 }
@@ -25,9 +25,11 @@ public class PluginConstants {
     // compiler plugin constants
     public static final String PACKAGE_PREFIX = "mqtt";
     public static final String ON_MESSAGE_FUNC = "onMessage";
+    public static final String ON_MESSAGES_FUNC = "onMessages";
     public static final String ON_ERROR_FUNC = "onError";
     public static final String ON_COMPLETE_FUNC = "onComplete";
     public static final String PACKAGE_ORG = "ballerina";
+    public static final String SHARED_SUBSCRIPTION_PREFIX = "$share/";
 
     // parameters
     public static final String CALLER = "Caller";
@@ -43,18 +45,20 @@ public class PluginConstants {
     public static final String LS = System.lineSeparator();
     public static final String CODE_TEMPLATE_NAME_WITH_CALLER = "ADD_REMOTE_FUNCTION_CODE_SNIPPET_WITH_CALLER";
     public static final String CODE_TEMPLATE_NAME_WITHOUT_CALLER = "ADD_REMOTE_FUNCTION_CODE_SNIPPET_WITHOUT_CALLER";
+    public static final String CODE_TEMPLATE_NAME_FOR_BATCH = "ADD_BATCH_REMOTE_FUNCTION_CODE_SNIPPET";
 
     /**
      * Compilation errors.
      */
     public enum CompilationErrors {
-        NO_ON_MESSAGE("Service must have remote method onMessage.", "MQTT_101"),
+        NO_ON_MESSAGE("Service must have remote method onMessage or onMessages.", "MQTT_101"),
         INVALID_REMOTE_FUNCTION("Invalid remote method.", "MQTT_102"),
         INVALID_RESOURCE_FUNCTION("Resource functions not allowed.", "MQTT_103"),
         FUNCTION_SHOULD_BE_REMOTE("Method must have the remote qualifier.", "MQTT_104"),
-        MUST_HAVE_CALLER_AND_MESSAGE("Must have the required parameter mqtt:Message" +
+        MUST_HAVE_CALLER_AND_MESSAGE("Must have the required parameter mqtt:Message or an anydata payload" +
                 " and optional parameter mqtt:Caller.", "MQTT_105"),
-        INVALID_MESSAGE_PARAMETER("Invalid method parameter. Only mqtt:Message is allowed.", "MQTT_106"),
+        INVALID_MESSAGE_PARAMETER("Invalid method parameter. Only mqtt:Message or an anydata payload is allowed.",
+                "MQTT_106"),
         INVALID_CALLER_PARAMETER("Invalid method parameter. Only mqtt:Caller is allowed", "MQTT_107"),
         INVALID_PARAM_COUNT("Invalid method parameter count. " +
                 "Only mqtt:Caller and mqtt:Message are allowed.", "MQTT_108"),
@@ -69,7 +73,15 @@ public class PluginConstants {
         ONLY_DELIVERY_TOKEN_ALLOWED("Invalid method parameter. Only mqtt:DeliveryToken is allowed", "MQTT_115"),
         INVALID_DELIVERY_TOKEN_PARAM_COUNT("Invalid method parameter count. Only mqtt:DeliveryToken is allowed",
                 "MQTT_116"),
-        MUST_HAVE_DELIVERY_TOKEN("Must have the required parameter mqtt:DeliveryToken", "MQTT_117");
+        MUST_HAVE_DELIVERY_TOKEN("Must have the required parameter mqtt:DeliveryToken", "MQTT_117"),
+        ON_MESSAGE_AND_ON_MESSAGES("Service cannot have both remote methods onMessage and onMessages.", "MQTT_118"),
+        MUST_HAVE_CALLER_AND_MESSAGES("Must have the required parameter mqtt:Message[]" +
+                " and optional parameter mqtt:Caller.", "MQTT_119"),
+        INVALID_MESSAGES_PARAMETER("Invalid method parameter. Only mqtt:Message[] is allowed.", "MQTT_120"),
+        INVALID_MESSAGES_PARAM_COUNT("Invalid method parameter count. " +
+                "Only mqtt:Caller and mqtt:Message[] are allowed.", "MQTT_121"),
+        INVALID_SHARED_SUBSCRIPTION("Invalid shared subscription. Must be $share/<group>/<topic filter> with a group " +
+                "name that does not contain '/', '+' or '#'.", "MQTT_122");
 
         private final String error;
         private final String errorCode;
@@ -92,4 +92,14 @@ public final class PluginUtils {
         int end = textDocument.textPositionFrom(lineRange.endLine());
         return ((ModulePartNode) syntaxTree.rootNode()).findNode(TextRange.from(start, end - start), true);
     }
+
+    public static boolean isValidSharedSubscription(String topicFilter) {
+        int groupStart = PluginConstants.SHARED_SUBSCRIPTION_PREFIX.length();
+        int groupEnd = topicFilter.indexOf('/', groupStart);
+        if (groupEnd <= groupStart || groupEnd == topicFilter.length() - 1) {
+            return false;
+        }
+        String group = topicFilter.substring(groupStart, groupEnd);
+        return !group.contains("+") && !group.contains("#");
+    }
 }
@@ -0,0 +1,104 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/http;
+import ballerina/log;
+import ballerina/mqtt;
+import ballerina/time;
+import ballerina/uuid;
+
+const string TOPIC = "mqtt/perf-topic";
+const string MQTT_CLUSTER = "tcp://mosquitto:1883";
+
+// Number of messages published back to back with each QoS level
+configurable int messageCount = 1000000;
+
+Payload SENDING_MESSAGE = {
+    id: 12501,
+    name: "User",
+    content: "This is the message content of the load test.",
+    extra: "This contains the extra content of load test message record."
+};
+
+map<PhaseResult> results = {};
+boolean finished = false;
+
+service /mqtt on new http:Listener(9100) {
+
+    resource function get publish() returns error? {
+        log:printInfo("Received request to start publishing messages.");
+        results = {};
+        finished = false;
+        _ = start publishMessages();
+        log:printInfo("Started publishing messages.");
+    }
+
+    resource function get getResults() returns boolean|map<string> {
+        if finished {
+            map<string> summary = {};
+            foreach [string, PhaseResult] [qos, result] in results.entries() {
+                summary[string `qos${qos}ErrorCount`] = result.errorCount.toString();
+                summary[string `qos${qos}SentCount`] = result.sentCount.toString();
+                summary[string `qos${qos}Time`] = result.time.toString();
+            }
+            return summary;
+        }
+        return false;
+    }
+}
+
+function publishMessages() {
+    mqtt:Client|mqtt:Error 'client = new (MQTT_CLUSTER, uuid:createType1AsString());
+    if 'client is mqtt:Error {
+        log:printError("Error while creating the client.", 'client);
+        finished = true;
+        return;
+    }
+    byte[] payload = SENDING_MESSAGE.toJsonString().toBytes();
+    // The acknowledged path is measured first so that both phases run against a warmed up broker connection.
+    foreach int qos in [1, 0] {
+        results[qos.toString()] = publishWithQos('client, qos, payload);
+    }
+    finished = true;
+}
+
+function publishWithQos(mqtt:Client 'client, int qos, byte[] payload) returns PhaseResult {
+    int errorCount = 0;
+    int sentCount = 0;
+    time:Utc startedTime = time:utcNow();
+    foreach int i in 0 ..< messageCount {
+        mqtt:DeliveryToken|error result = 'client->publish(TOPIC, {payload, qos});
+        if result is error {
+            errorCount += 1;
+        } else {
+            sentCount += 1;
+        }
+    }
+    return {errorCount, sentCount, time: time:utcDiffSeconds(time:utcNow(), startedTime)};
+}
+
+type PhaseResult record {|
+    int errorCount;
+    int sentCount;
+    decimal time;
+|};
+
+public type Payload record {|
+    int id;
+    string name;
+    string content;
+    string extra;
+|};
@@ -0,0 +1,66 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/log;
+import ballerina/http;
+import ballerina/lang.runtime;
+import ballerina/io;
+import ballerina/time;
+
+public function main(string label, string output_csv_path) returns error? {
+    http:Client loadTestClient = check new ("http://bal.perf.test");
+
+    error? response = check loadTestClient->get("/mqtt/publish");
+    if response is () {
+        log:printInfo("Started receiving messages");
+    } else {
+        log:printError("Error occurred while receiving messages");
+    }
+
+    map<string> testResults = {};
+
+    boolean finished = false;
+    while !finished {
+        boolean|map<string>|error res = loadTestClient->get("/mqtt/getResults");
+        if res is error {
+            log:printError("Error occurred", res);
+        } else if res is map<string> {
+            finished = true;
+            testResults = res;
+        }
+        runtime:sleep(60);
+    }
+    // One row per receive queue so that the ring buffer wait strategies can be compared against the linked queue
+    foreach string queue in ["LINKED", "SPIN", "YIELD", "PARK"] {
+        int errorCount = check int:fromString(testResults.get(string `${queue}ErrorCount`));
+        decimal time = check decimal:fromString(testResults.get(string `${queue}Time`));
+        int receivedCount = check int:fromString(testResults.get(string `${queue}ReceivedCount`));
+        any[] results = [string `${label} - ${queue}`, receivedCount, <float>time * 1000/<float>receivedCount, 0, 0,
+            0, 0, 0, 0, <float>errorCount/<float>(receivedCount + errorCount), <float>receivedCount/<float>time, 0,
+            0, time:utcNow()[0], 0, 1];
+        check writeResultsToCsv(results, output_csv_path);
+    }
+}
+
+function writeResultsToCsv(any[] results, string output_path) returns error? {
+    string[][] summary_data = check io:fileReadCsv(output_path);
+    string[] final_results = [];
+    foreach var result in results {
+        final_results.push(result.toString());
+    }
+    summary_data.push(final_results);
+    check io:fileWriteCsv(output_path, summary_data);
+}
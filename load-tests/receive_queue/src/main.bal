@@ -0,0 +1,153 @@
+// Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com) All Rights Reserved.
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+
+import ballerina/http;
+import ballerina/lang.runtime;
+import ballerina/log;
+import ballerina/mqtt;
+import ballerina/time;
+import ballerina/uuid;
+
+const string TOPIC = "mqtt/perf-receive-topic";
+const string MQTT_CLUSTER = "tcp://mosquitto:1883";
+const string LINKED_QUEUE = "LINKED";
+const string END_MARKER = "end-of-phase";
+
+// Number of messages received with each receive queue
+configurable int messageCount = 1000000;
+// Capacity of the receive queue
+configurable int queueCapacity = 65536;
+// Maximum time in seconds to wait for the messages of a phase to be received
+configurable decimal phaseTimeout = 300;
+
+Payload SENDING_MESSAGE = {
+    id: 12501,
+    name: "User",
+    content: "This is the message content of the load test.",
+    extra: "This contains the extra content of load test message record."
+};
+
+map<PhaseResult> results = {};
+boolean finished = false;
+isolated int receivedCount = 0;
+
+service /mqtt on new http:Listener(9100) {
+
+    resource function get publish() returns error? {
+        log:printInfo("Received request to start receiving messages.");
+        results = {};
+        finished = false;
+        _ = start receiveMessages();
+        log:printInfo("Started receiving messages.");
+    }
+
+    resource function get getResults() returns boolean|map<string> {
+        if finished {
+            map<string> summary = {};
+            foreach [string, PhaseResult] [queue, result] in results.entries() {
+                summary[string `${queue}ErrorCount`] = result.errorCount.toString();
+                summary[string `${queue}ReceivedCount`] = result.receivedCount.toString();
+                summary[string `${queue}Time`] = result.time.toString();
+            }
+            return summary;
+        }
+        return false;
+    }
+}
+
+function receiveMessages() {
+    byte[] payload = SENDING_MESSAGE.toJsonString().toBytes();
+    // The linked queue is measured first so that the ring buffer phases run against a warmed up broker.
+    foreach string queue in [LINKED_QUEUE, mqtt:SPIN, mqtt:YIELD, mqtt:PARK] {
+        PhaseResult|error result = receiveWithQueue(queue, payload);
+        if result is error {
+            log:printError(string `Error while receiving messages with the ${queue} queue.`, result);
+            results[queue] = {errorCount: messageCount, receivedCount: 0, time: 0};
+        } else {
+            results[queue] = result;
+        }
+    }
+    finished = true;
+}
+
+function receiveWithQueue(string queue, byte[] payload) returns PhaseResult|error {
+    mqtt:ReceiveQueueConfiguration receiveQueueConfig = {capacity: queueCapacity};
+    if queue != LINKED_QUEUE {
+        receiveQueueConfig.waitStrategy = <mqtt:WaitStrategy>queue;
+    }
+    mqtt:Client subscriber = check new (MQTT_CLUSTER, uuid:createType1AsString(), {receiveQueueConfig});
+    mqtt:Client publisher = check new (MQTT_CLUSTER, uuid:createType1AsString());
+    check subscriber->subscribe({topic: TOPIC, qos: 0});
+    stream<mqtt:Message, error?> messageStream = check subscriber->receive();
+    lock {
+        receivedCount = 0;
+    }
+    time:Utc startedTime = time:utcNow();
+    future<error?> consumer = start consumeMessages(messageStream);
+    foreach int i in 0 ..< messageCount {
+        _ = check publisher->publish(TOPIC, {payload, qos: 0});
+    }
+    decimal elapsed = 0;
+    while receivedMessageCount() < messageCount && elapsed < phaseTimeout {
+        runtime:sleep(0.1);
+        elapsed = time:utcDiffSeconds(time:utcNow(), startedTime);
+    }
+    decimal time = time:utcDiffSeconds(time:utcNow(), startedTime);
+    int received = receivedMessageCount();
+    // The end marker lets the consumer return from its read, so that no strand is left waiting on the queue once the
+    // stream and the clients are closed
+    _ = check publisher->publish(TOPIC, {payload: END_MARKER.toBytes(), qos: 1});
+    check wait consumer;
+    check messageStream.close();
+    check publisher->disconnect();
+    check publisher->close();
+    check subscriber->disconnect();
+    check subscriber->close();
+    return {errorCount: messageCount - received, receivedCount: received, time};
+}
+
+function consumeMessages(stream<mqtt:Message, error?> messageStream) returns error? {
+    byte[] endMarker = END_MARKER.toBytes();
+    while true {
+        record {|mqtt:Message value;|}? next = check messageStream.next();
+        if next is () || next.value.payload == endMarker {
+            return;
+        }
+        lock {
+            receivedCount += 1;
+        }
+    }
+}
+
+isolated function receivedMessageCount() returns int {
+    lock {
+        return receivedCount;
+    }
+}
+
+type PhaseResult record {|
+    int errorCount;
+    int receivedCount;
+    decimal time;
+|};
+
+public type Payload record {|
+    int id;
+    string name;
+    string content;
+    string extra;
+|};
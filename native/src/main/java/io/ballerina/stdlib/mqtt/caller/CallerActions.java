@@ -18,18 +18,18 @@
 
 package io.ballerina.stdlib.mqtt.caller;
 
-import io.ballerina.runtime.api.Environment;
+import io.ballerina.runtime.api.values.BError;
 import io.ballerina.runtime.api.values.BMap;
 import io.ballerina.runtime.api.values.BObject;
+import io.ballerina.stdlib.mqtt.listener.Acknowledger;
+import io.ballerina.stdlib.mqtt.listener.PendingMessage;
 import io.ballerina.stdlib.mqtt.utils.MqttConstants;
 import io.ballerina.stdlib.mqtt.utils.MqttUtils;
-import org.eclipse.paho.mqttv5.client.MqttClient;
 import org.eclipse.paho.mqttv5.common.MqttException;
 import org.eclipse.paho.mqttv5.common.MqttMessage;
+import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
 
 import java.util.Objects;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import static io.ballerina.stdlib.mqtt.utils.MqttUtils.generateMqttMessage;
 
@@ -40,44 +40,59 @@ public final class CallerActions {
 
     private CallerActions() {}
 
-    private static final ExecutorService executorService = Executors.newCachedThreadPool(new CallerThreadFactory());
-
-    public static Object complete(Environment env, BObject callerObject) {
-        MqttClient subscriber = (MqttClient) callerObject.getNativeData(MqttConstants.SUBSCRIBER);
-        int messageId = (int) callerObject.getNativeData(MqttConstants.MESSAGE_ID);
-        int qos = (int) callerObject.getNativeData(MqttConstants.QOS);
-        return env.yieldAndRun(() -> {
-            executorService.execute(() -> {
-                try {
-                    subscriber.messageArrivedComplete(messageId, qos);
-                } catch (MqttException e) {
-                    throw MqttUtils.createMqttError(e);
-                }
-            });
-            return null;
-        });
+    /**
+     * Completes the received message, or every message of the batch given to {@code onMessages}. The messages are
+     * acknowledged through the acknowledger of the listener.
+     */
+    public static Object complete(BObject callerObject) {
+        CallerContext callerContext = (CallerContext) callerObject.getNativeData(MqttConstants.CALLER_CONTEXT);
+        Acknowledger acknowledger = callerContext.getAcknowledger();
+        if (!callerContext.isBatch()) {
+            return acknowledger.complete(callerContext.getPendingMessage());
+        }
+        for (PendingMessage pendingMessage : callerContext.getBatch()) {
+            BError error = acknowledger.complete(pendingMessage);
+            if (Objects.nonNull(error)) {
+                return error;
+            }
+        }
+        return null;
     }
 
-    public static Object respond(Environment env, BObject callerObject, BMap message) {
-        MqttClient subscriber = (MqttClient) callerObject.getNativeData(MqttConstants.SUBSCRIBER);
-        byte[] correlationData = (byte[]) callerObject.getNativeData(MqttConstants.CORRELATION_DATA);
-        String responseTopic = (String) callerObject.getNativeData(MqttConstants.RESPONSE_TOPIC.getValue());
-        MqttMessage mqttMessage = generateMqttMessage(message);
+    /**
+     * Hands the response over to the transport without waiting for its acknowledgement, so that the handler of the
+     * request is not held up by the round trip. The delivery is reported through {@code onComplete} instead.
+     */
+    public static Object respond(BObject callerObject, BMap message) {
+        CallerContext callerContext = (CallerContext) callerObject.getNativeData(MqttConstants.CALLER_CONTEXT);
+        if (callerContext.isBatch()) {
+            return MqttUtils.createMqttError(new Exception("Cannot respond to a batch of messages"));
+        }
+        MqttProperties requestProperties = callerContext.getMessage().getProperties();
+        String responseTopic = requestProperties.getResponseTopic();
         if (Objects.isNull(responseTopic)) {
             return MqttUtils.createMqttError(new Exception("Response topic is not set"));
         }
+        MqttMessage mqttMessage = generateMqttMessage(message);
+        byte[] correlationData = requestProperties.getCorrelationData();
         if (Objects.nonNull(correlationData)) {
             mqttMessage.getProperties().setCorrelationData(correlationData);
         }
-        return env.yieldAndRun(() -> {
-            executorService.execute(() -> {
-                try {
-                    subscriber.publish(responseTopic, mqttMessage);
-                } catch (MqttException e) {
-                    throw MqttUtils.createMqttError(e);
-                }
-            });
-            return null;
-        });
+        try {
+            // The service is carried to the delivery callback to report the delivery to its onComplete
+            callerContext.getSubscriber().publish(responseTopic, mqttMessage, callerContext.getService(), null);
+        } catch (MqttException e) {
+            return MqttUtils.createMqttError(e);
+        }
+        return null;
+    }
+
+    public static Object getProperties(BObject callerObject) {
+        CallerContext callerContext = (CallerContext) callerObject.getNativeData(MqttConstants.CALLER_CONTEXT);
+        if (callerContext.isBatch()) {
+            // A batch has no properties of its own
+            return MqttUtils.getBMessageProperties(new MqttProperties());
+        }
+        return MqttUtils.getBMessageProperties(callerContext.getMessage().getProperties());
     }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.caller;
+
+import io.ballerina.runtime.api.values.BObject;
+import io.ballerina.stdlib.mqtt.listener.Acknowledger;
+import io.ballerina.stdlib.mqtt.listener.PendingMessage;
+import org.eclipse.paho.mqttv5.client.MqttAsyncClient;
+import org.eclipse.paho.mqttv5.common.MqttMessage;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The native state of a caller, kept as a single entry of its native data. It refers to either the message given to
+ * {@code onMessage} or the batch given to {@code onMessages}. The response topic and the correlation data are read
+ * from the message when a response is sent rather than copied onto the caller for every message.
+ */
+public final class CallerContext {
+
+    private final MqttAsyncClient subscriber;
+    private final BObject service;
+    private final Acknowledger acknowledger;
+    private final PendingMessage message;
+    private final List<PendingMessage> batch;
+
+    private CallerContext(MqttAsyncClient subscriber, BObject service, Acknowledger acknowledger,
+                          PendingMessage message, List<PendingMessage> batch) {
+        this.subscriber = subscriber;
+        this.service = service;
+        this.acknowledger = acknowledger;
+        this.message = message;
+        this.batch = batch;
+    }
+
+    public static CallerContext forMessage(MqttAsyncClient subscriber, BObject service, Acknowledger acknowledger,
+                                           PendingMessage message) {
+        return new CallerContext(subscriber, service, acknowledger, message, null);
+    }
+
+    public static CallerContext forBatch(MqttAsyncClient subscriber, BObject service, Acknowledger acknowledger,
+                                         List<PendingMessage> batch) {
+        return new CallerContext(subscriber, service, acknowledger, null, batch);
+    }
+
+    MqttAsyncClient getSubscriber() {
+        return subscriber;
+    }
+
+    BObject getService() {
+        return service;
+    }
+
+    Acknowledger getAcknowledger() {
+        return acknowledger;
+    }
+
+    boolean isBatch() {
+        return Objects.nonNull(batch);
+    }
+
+    /**
+     * Returns the received message, or {@code null} for a batch.
+     */
+    MqttMessage getMessage() {
+        return Objects.isNull(message) ? null : message.getMessage();
+    }
+
+    PendingMessage getPendingMessage() {
+        return message;
+    }
+
+    List<PendingMessage> getBatch() {
+        return batch;
+    }
+}
@@ -23,37 +23,63 @@ import io.ballerina.runtime.api.creators.TypeCreator;
 import io.ballerina.runtime.api.creators.ValueCreator;
 import io.ballerina.runtime.api.types.StreamType;
 import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BDecimal;
 import io.ballerina.runtime.api.values.BError;
 import io.ballerina.runtime.api.values.BMap;
 import io.ballerina.runtime.api.values.BObject;
 import io.ballerina.runtime.api.values.BStream;
 import io.ballerina.runtime.api.values.BString;
 import io.ballerina.runtime.api.values.BTypedesc;
+import io.ballerina.stdlib.mqtt.utils.ActionCompletionListener;
+import io.ballerina.stdlib.mqtt.utils.MessageBinder;
 import io.ballerina.stdlib.mqtt.utils.MqttConstants;
 import io.ballerina.stdlib.mqtt.utils.MqttUtils;
-import org.eclipse.paho.mqttv5.client.MqttClient;
+import org.eclipse.paho.mqttv5.client.IMqttToken;
+import org.eclipse.paho.mqttv5.client.MqttActionListener;
+import org.eclipse.paho.mqttv5.client.MqttAsyncClient;
 import org.eclipse.paho.mqttv5.client.MqttConnectionOptions;
-import org.eclipse.paho.mqttv5.client.persist.MemoryPersistence;
 import org.eclipse.paho.mqttv5.common.MqttException;
 import org.eclipse.paho.mqttv5.common.MqttMessage;
-import org.eclipse.paho.mqttv5.common.MqttSubscription;
+import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
 
 import java.util.ArrayList;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import static io.ballerina.stdlib.mqtt.utils.ModuleUtils.getModule;
-import static io.ballerina.stdlib.mqtt.utils.MqttConstants.CLIENT_EXECUTOR_SERVICES;
-import static io.ballerina.stdlib.mqtt.utils.MqttConstants.DELIVERY_TOKEN_QUEUE;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.BACKPRESSURE_BLOCK;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.BACKPRESSURE_POLICY;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.BATCH_STREAM_ITERATOR;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.CAPACITY;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.DELIVERY_FUTURE;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.DESTINATION_TOPIC;
-import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RESPONSE_EXECUTOR_SERVICE;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.DROPPED_MESSAGES;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.INFLIGHT_CONFIGURATION;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.INFLIGHT_WINDOW;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.MAX_INFLIGHT;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.MAX_MESSAGES;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.MAX_QUEUED;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.MAX_WAIT;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.MESSAGE;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.MESSAGE_BINDER;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.OVERFLOW_BLOCK;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.OVERFLOW_POLICY;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.PUBLISH_FUTURE;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.QUEUED_MESSAGES;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RECEIVE_QUEUE_CONFIGURATION;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RECEIVE_ROUTER;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RECORD_CLIENT_METRICS;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RESPONSE_QUEUE;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.STREAM_ITERATOR;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.TOPIC;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.TOPIC_FILTER;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.WAIT_STRATEGY;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.WILL_DETAILS;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.WILL_MESSAGE;
 import static io.ballerina.stdlib.mqtt.utils.MqttUtils.generateMqttMessage;
+import static io.ballerina.stdlib.mqtt.utils.MqttUtils.getBMqttMessage;
+import static io.ballerina.stdlib.mqtt.utils.MqttUtils.getMqttDeliveryToken;
 
 /**
  * Class containing the external methods of the publisher.
@@ -62,23 +88,28 @@ public final class ClientActions {
 
     private ClientActions() {}
 
-    private static final ExecutorService publishExecutorService =
-            Executors.newCachedThreadPool(new ClientThreadFactory());
+    private static final MqttActionListener PUBLISH_FAILURE_LISTENER = new PublishFailureListener();
+    private static final MqttActionListener WINDOW_RELEASE_LISTENER = new WindowReleaseListener();
 
-    public static Object externInit(BObject clientObject, BString serverUri, BString clientId,
+    public static Object externInit(Environment env, BObject clientObject, BString serverUri, BString clientId,
                                     BMap<BString, Object> clientConfiguration) {
         try {
-            MqttClient publisher = new MqttClient(serverUri.getValue(), clientId.getValue(), new MemoryPersistence());
+            InflightWindow inflightWindow = createInflightWindow(clientConfiguration);
+            MqttAsyncClient publisher = new WindowedMqttAsyncClient(serverUri.getValue(), clientId.getValue(),
+                    inflightWindow);
             MqttConnectionOptions options = MqttUtils.getMqttConnectOptions(clientConfiguration);
             setWillMessage(clientConfiguration, options);
-            publisher.connect(options);
-            LinkedBlockingQueue blockingQueue = new LinkedBlockingQueue<>();
-            LinkedBlockingQueue deliveryTokenQueue = new LinkedBlockingQueue<>();
-            clientObject.addNativeData(RESPONSE_QUEUE, blockingQueue);
-            clientObject.addNativeData(DELIVERY_TOKEN_QUEUE, deliveryTokenQueue);
+            ReceiveRouter receiveRouter = createReceiveRouter(clientConfiguration);
+            publisher.setCallback(new MqttClientCallbackImpl(receiveRouter));
+            ActionCompletionListener connectListener = new ActionCompletionListener();
+            publisher.connect(options, null, connectListener);
+            Object result = connectListener.await(env);
+            if (result instanceof BError) {
+                return result;
+            }
+            clientObject.addNativeData(INFLIGHT_WINDOW, inflightWindow);
+            clientObject.addNativeData(RECEIVE_ROUTER, receiveRouter);
             clientObject.addNativeData(MqttConstants.MQTT_CLIENT, publisher);
-            clientObject.addNativeData(CLIENT_EXECUTOR_SERVICES, new ArrayList<ExecutorService>());
-            publisher.setCallback(new MqttClientCallbackImpl(blockingQueue, deliveryTokenQueue));
         } catch (BError e) {
             return e;
         } catch (Exception e) {
@@ -87,58 +118,92 @@ public final class ClientActions {
         return null;
     }
 
-    public static Object externSubscribe(BObject clientObject, BArray subscriptions) {
-        MqttClient publisher = (MqttClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
-        MqttSubscription[] mqttSubscriptions = new MqttSubscription[subscriptions.size()];
-        for (int i = 0; i < subscriptions.size(); i++) {
-            BMap topicSubscription = (BMap) subscriptions.getValues()[i];
-            mqttSubscriptions[i] = new MqttSubscription(topicSubscription.getStringValue(MqttConstants.TOPIC)
-                    .getValue(), topicSubscription.getIntValue(MqttConstants.BQOS).intValue());
-        }
+    public static Object externSubscribe(Environment env, BObject clientObject, BArray subscriptions) {
+        MqttAsyncClient publisher = (MqttAsyncClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+        ActionCompletionListener subscribeListener = new ActionCompletionListener();
         try {
-            publisher.subscribe(mqttSubscriptions);
-        } catch (MqttException e) {
+            publisher.subscribe(MqttUtils.getMqttSubscriptions(subscriptions), null, subscribeListener,
+                    new MqttProperties());
+        } catch (MqttException | IllegalArgumentException e) {
             return MqttUtils.createMqttError(e);
         }
-        return null;
+        return subscribeListener.await(env);
     }
 
     public static Object externPublish(Environment env, BObject clientObject, BString topic, BMap message) {
-        MqttClient publisher = (MqttClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+        MqttAsyncClient publisher = (MqttAsyncClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+        InflightWindow inflightWindow = (InflightWindow) clientObject.getNativeData(INFLIGHT_WINDOW);
+        MqttMessage mqttMessage = generateMqttMessage(message);
+        if (mqttMessage.getQos() == 0 && inflightWindow.tryAcquire()) {
+            return sendFireAndForget(publisher, inflightWindow, topic.getValue(), mqttMessage);
+        }
+        return env.yieldAndRun(() -> MqttUtils.getResult(sendMessage(publisher, inflightWindow, topic.getValue(),
+                mqttMessage)));
+    }
+
+    public static Object externPublishAsync(Environment env, BObject clientObject, BString topic, BMap message) {
+        MqttAsyncClient publisher = (MqttAsyncClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+        InflightWindow inflightWindow = (InflightWindow) clientObject.getNativeData(INFLIGHT_WINDOW);
         MqttMessage mqttMessage = generateMqttMessage(message);
+        if (inflightWindow.tryAcquire()) {
+            return createPublishFuture(sendAcquired(publisher, inflightWindow, topic.getValue(), mqttMessage));
+        }
+        return env.yieldAndRun(() -> createPublishFuture(sendMessage(publisher, inflightWindow, topic.getValue(),
+                mqttMessage)));
+    }
+
+    public static Object externPublishBatch(Environment env, BObject clientObject, BArray batch, BArray results) {
+        MqttAsyncClient publisher = (MqttAsyncClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+        InflightWindow inflightWindow = (InflightWindow) clientObject.getNativeData(INFLIGHT_WINDOW);
+        int batchSize = batch.size();
         return env.yieldAndRun(() -> {
-            try {
-                publisher.publish(topic.getValue(), mqttMessage);
-                LinkedBlockingQueue deliveryTokenQueue = (LinkedBlockingQueue) clientObject
-                        .getNativeData(DELIVERY_TOKEN_QUEUE);
-                return deliveryTokenQueue.take();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return MqttUtils.createMqttError(e);
-            } catch (MqttException e) {
-            return MqttUtils.createMqttError(e);
+            List<CompletableFuture<Object>> deliveries = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                BMap publishRequest = (BMap) batch.get(i);
+                MqttMessage mqttMessage = generateMqttMessage(publishRequest.getMapValue(MESSAGE));
+                deliveries.add(sendMessage(publisher, inflightWindow, publishRequest.getStringValue(TOPIC).getValue(),
+                        mqttMessage));
+            }
+            for (int i = 0; i < batchSize; i++) {
+                results.add(i, MqttUtils.getResult(deliveries.get(i)));
+            }
+            return null;
+        });
+    }
+
+    public static Object getDeliveryToken(Environment env, BObject publishFuture, Object timeout) {
+        CompletableFuture<Object> delivery = (CompletableFuture<Object>) publishFuture.getNativeData(DELIVERY_FUTURE);
+        if (Objects.isNull(delivery)) {
+            return MqttUtils.createMqttError(new Exception("Publish future is not bound to a published message"));
         }
-    });
-}
+        if (delivery.isDone() || Objects.isNull(timeout)) {
+            return env.yieldAndRun(() -> MqttUtils.getResult(delivery));
+        }
+        long timeoutInMillis = (long) (((BDecimal) timeout).floatValue() * 1000);
+        return env.yieldAndRun(() -> MqttUtils.getResult(delivery, timeoutInMillis));
+    }
 
-    public static Object externReceive(BObject clientObject, BTypedesc bTypedesc) {
-        LinkedBlockingQueue blockingQueue = (LinkedBlockingQueue) clientObject.getNativeData(RESPONSE_QUEUE);
-        ExecutorService responseExecutorService = Executors.newCachedThreadPool(new ClientThreadFactory());
+    public static boolean isDeliveryComplete(BObject publishFuture) {
+        CompletableFuture<?> delivery = (CompletableFuture<?>) publishFuture.getNativeData(DELIVERY_FUTURE);
+        return Objects.nonNull(delivery) && delivery.isDone();
+    }
+
+    public static Object externReceive(BObject clientObject, Object topicFilter, BTypedesc bTypedesc) {
+        BError filterError = validateTopicFilter(topicFilter);
+        if (Objects.nonNull(filterError)) {
+            return filterError;
+        }
         BObject streamIterator = ValueCreator.createObjectValue(getModule(), STREAM_ITERATOR);
-        streamIterator.addNativeData(RESPONSE_QUEUE, blockingQueue);
-        streamIterator.addNativeData(RESPONSE_EXECUTOR_SERVICE, responseExecutorService);
-        ((ArrayList<ExecutorService>) clientObject.getNativeData(CLIENT_EXECUTOR_SERVICES))
-                .add(responseExecutorService);
+        openReceiveQueue(clientObject, streamIterator, topicFilter);
         StreamType streamType = (StreamType) bTypedesc.getDescribingType();
+        streamIterator.addNativeData(MESSAGE_BINDER, MessageBinder.of(streamType.getConstrainedType()));
         BStream bStream = ValueCreator.createStreamValue(TypeCreator.createStreamType(
                 streamType.getConstrainedType(), streamType.getCompletionType()), streamIterator);
         return bStream;
     }
 
     public static Object externClose(BObject clientObject) {
-        MqttClient publisher = (MqttClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
-        ((ArrayList<ExecutorService>) clientObject.getNativeData(CLIENT_EXECUTOR_SERVICES))
-                .forEach(ExecutorService::shutdown);
+        MqttAsyncClient publisher = (MqttAsyncClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
         try {
             publisher.close();
         } catch (MqttException e) {
@@ -147,23 +212,51 @@ public final class ClientActions {
         return null;
     }
 
+    public static Object externReceiveBatch(BObject clientObject, long maxMessages, BDecimal maxWait,
+                                            Object topicFilter) {
+        if (maxMessages <= 0) {
+            return MqttUtils.createMqttError(new Exception("Maximum number of messages in a batch should be positive"));
+        }
+        if (maxWait.floatValue() < 0) {
+            return MqttUtils.createMqttError(new Exception("Maximum wait time of a batch should not be negative"));
+        }
+        BError filterError = validateTopicFilter(topicFilter);
+        if (Objects.nonNull(filterError)) {
+            return filterError;
+        }
+        BObject streamIterator = ValueCreator.createObjectValue(getModule(), BATCH_STREAM_ITERATOR);
+        openReceiveQueue(clientObject, streamIterator, topicFilter);
+        streamIterator.addNativeData(MAX_MESSAGES, (int) maxMessages);
+        streamIterator.addNativeData(MAX_WAIT, (long) (maxWait.floatValue() * 1_000_000_000));
+        return streamIterator;
+    }
+
+    public static BMap<BString, Object> getMetrics(BObject clientObject) {
+        ReceiveRouter receiveRouter = (ReceiveRouter) clientObject.getNativeData(RECEIVE_ROUTER);
+        BMap<BString, Object> metrics = ValueCreator.createRecordValue(getModule(), RECORD_CLIENT_METRICS);
+        metrics.put(QUEUED_MESSAGES, (long) receiveRouter.size());
+        metrics.put(DROPPED_MESSAGES, receiveRouter.getDroppedMessages());
+        return metrics;
+    }
+
     public static Object externIsConnected(BObject clientObject) {
-        MqttClient publisher = (MqttClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+        MqttAsyncClient publisher = (MqttAsyncClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
         return publisher.isConnected();
     }
 
-    public static Object externDisconnect(BObject clientObject) {
-        MqttClient publisher = (MqttClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+    public static Object externDisconnect(Environment env, BObject clientObject) {
+        MqttAsyncClient publisher = (MqttAsyncClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+        ActionCompletionListener disconnectListener = new ActionCompletionListener();
         try {
-            publisher.disconnect();
+            publisher.disconnect(null, disconnectListener);
         } catch (MqttException e) {
             return MqttUtils.createMqttError(e);
         }
-        return null;
+        return disconnectListener.await(env);
     }
 
     public static Object externReconnect(BObject clientObject) {
-        MqttClient publisher = (MqttClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+        MqttAsyncClient publisher = (MqttAsyncClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
         try {
             publisher.reconnect();
         } catch (MqttException e) {
@@ -173,26 +266,181 @@ public final class ClientActions {
     }
 
     public static Object nextResult(Environment env, BObject streamIterator) {
-        BlockingQueue<?> messageQueue = (BlockingQueue<?>) streamIterator.getNativeData(RESPONSE_QUEUE);
+        ReceiveQueue receiveQueue = (ReceiveQueue) streamIterator.getNativeData(RESPONSE_QUEUE);
+        MessageBinder messageBinder = (MessageBinder) streamIterator.getNativeData(MESSAGE_BINDER);
         return env.yieldAndRun(() -> {
+            Object result;
             try {
-                BMap message = (BMap) messageQueue.take();
-                return message;
+                result = receiveQueue.take();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 return MqttUtils.createMqttError(e);
             }
+            if (result instanceof ReceivedMessage receivedMessage) {
+                try {
+                    return messageBinder.bind(receivedMessage.getMessage(), receivedMessage.getTopic(), true);
+                } catch (BError e) {
+                    return e;
+                }
+            }
+            return result;
+        });
+    }
+
+    public static Object nextBatch(Environment env, BObject streamIterator, BArray batch) {
+        ReceiveQueue receiveQueue = (ReceiveQueue) streamIterator.getNativeData(RESPONSE_QUEUE);
+        int maxMessages = (int) streamIterator.getNativeData(MAX_MESSAGES);
+        long maxWaitNanos = (long) streamIterator.getNativeData(MAX_WAIT);
+        return env.yieldAndRun(() -> {
+            List<Object> messages = new ArrayList<>(maxMessages);
+            try {
+                BError error = receiveQueue.takeBatch(messages, maxMessages, maxWaitNanos);
+                if (Objects.nonNull(error)) {
+                    return error;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return MqttUtils.createMqttError(e);
+            }
+            for (Object message : messages) {
+                ReceivedMessage receivedMessage = (ReceivedMessage) message;
+                batch.append(getBMqttMessage(receivedMessage.getMessage(), receivedMessage.getTopic()));
+            }
+            return null;
         });
     }
 
     public static void closeStream(BObject streamIterator) {
-        BlockingQueue<?> messageQueue = (BlockingQueue<?>) streamIterator.getNativeData(RESPONSE_QUEUE);
-        ExecutorService executor = (ExecutorService) streamIterator.getNativeData(RESPONSE_EXECUTOR_SERVICE);
-        messageQueue.clear();
-        executor.shutdown();
+        ReceiveRouter receiveRouter = (ReceiveRouter) streamIterator.getNativeData(RECEIVE_ROUTER);
+        ReceiveQueue receiveQueue = (ReceiveQueue) streamIterator.getNativeData(RESPONSE_QUEUE);
+        String topicFilter = (String) streamIterator.getNativeData(TOPIC_FILTER);
+        if (Objects.isNull(topicFilter)) {
+            receiveRouter.closeDefault();
+        } else {
+            receiveRouter.closeFiltered(topicFilter, receiveQueue);
+        }
         streamIterator.addNativeData(RESPONSE_QUEUE, null);
     }
 
+    /**
+     * Hands the message over to the transport without waiting for the broker acknowledgement. The returned future is
+     * carried as the user context of the delivery token and gets completed with the {@code DeliveryToken} of this
+     * particular message from {@link MqttClientCallbackImpl#deliveryComplete(IMqttToken)}, or with an {@code Error}
+     * if the publish fails. This blocks while the in-flight window is full, so it must be called off the strand.
+     */
+    static CompletableFuture<Object> sendMessage(MqttAsyncClient publisher, InflightWindow inflightWindow,
+                                                 String topic, MqttMessage message) {
+        BError windowError = inflightWindow.acquire();
+        if (Objects.nonNull(windowError)) {
+            return CompletableFuture.completedFuture(windowError);
+        }
+        return sendAcquired(publisher, inflightWindow, topic, message);
+    }
+
+    private static CompletableFuture<Object> sendAcquired(MqttAsyncClient publisher, InflightWindow inflightWindow,
+                                                          String topic, MqttMessage message) {
+        if (message.getQos() == 0) {
+            return CompletableFuture.completedFuture(sendFireAndForget(publisher, inflightWindow, topic, message));
+        }
+        CompletableFuture<Object> delivery = new CompletableFuture<>();
+        delivery.whenComplete((result, throwable) -> inflightWindow.release());
+        try {
+            publisher.publish(topic, message, delivery, PUBLISH_FAILURE_LISTENER);
+        } catch (MqttException | IllegalArgumentException e) {
+            delivery.complete(MqttUtils.createMqttError(e));
+        }
+        return delivery;
+    }
+
+    /**
+     * A QoS 0 message is never acknowledged by the broker, so there is nothing to wait for once the message is queued
+     * on the connection. The delivery token is created right away without yielding the strand. The slot of the
+     * in-flight window that is already taken for the message is released once it is written to the network.
+     */
+    private static Object sendFireAndForget(MqttAsyncClient publisher, InflightWindow inflightWindow, String topic,
+                                            MqttMessage message) {
+        try {
+            publisher.publish(topic, message, inflightWindow, WINDOW_RELEASE_LISTENER);
+        } catch (MqttException | IllegalArgumentException e) {
+            inflightWindow.release();
+            return MqttUtils.createMqttError(e);
+        }
+        return getMqttDeliveryToken(0, topic);
+    }
+
+    private static Object createPublishFuture(CompletableFuture<Object> delivery) {
+        Object result = delivery.getNow(null);
+        if (result instanceof BError error) {
+            return error;
+        }
+        BObject publishFuture = ValueCreator.createObjectValue(getModule(), PUBLISH_FUTURE);
+        publishFuture.addNativeData(DELIVERY_FUTURE, delivery);
+        return publishFuture;
+    }
+
+    /**
+     * Creates the in-flight window of the client. It is sized to the receive maximum of the server by
+     * {@link WindowedMqttAsyncClient} once the client connects. Without an {@code inflightConfig} the window is only
+     * bounded by the receive maximum, so that the publishes beyond it wait for a slot instead of being rejected by
+     * the client library.
+     */
+    private static InflightWindow createInflightWindow(BMap<BString, Object> clientConfiguration) {
+        BMap inflightConfig = clientConfiguration.getMapValue(INFLIGHT_CONFIGURATION);
+        if (Objects.isNull(inflightConfig)) {
+            return new InflightWindow(InflightWindow.MAX_RECEIVE_MAXIMUM, BACKPRESSURE_BLOCK, 0);
+        }
+        long maxInflight = inflightConfig.getIntValue(MAX_INFLIGHT);
+        if (maxInflight <= 0) {
+            throw MqttUtils.createMqttError(new Exception("Maximum in-flight messages should be positive"));
+        }
+        long maxQueued = inflightConfig.getIntValue(MAX_QUEUED);
+        if (maxQueued < 0) {
+            throw MqttUtils.createMqttError(new Exception("Maximum queued publishes should not be negative"));
+        }
+        return new InflightWindow((int) Math.min(maxInflight, Integer.MAX_VALUE),
+                inflightConfig.getStringValue(BACKPRESSURE_POLICY).getValue(),
+                (int) Math.min(maxQueued, Integer.MAX_VALUE));
+    }
+
+    private static ReceiveRouter createReceiveRouter(BMap<BString, Object> clientConfiguration) {
+        BMap receiveQueueConfig = clientConfiguration.getMapValue(RECEIVE_QUEUE_CONFIGURATION);
+        if (Objects.isNull(receiveQueueConfig)) {
+            return new ReceiveRouter(Integer.MAX_VALUE, OVERFLOW_BLOCK, null);
+        }
+        long capacity = receiveQueueConfig.getIntValue(CAPACITY);
+        if (capacity <= 0) {
+            throw MqttUtils.createMqttError(new Exception("Receive queue capacity should be positive"));
+        }
+        BString waitStrategy = receiveQueueConfig.getStringValue(WAIT_STRATEGY);
+        return new ReceiveRouter((int) Math.min(capacity, Integer.MAX_VALUE),
+                receiveQueueConfig.getStringValue(OVERFLOW_POLICY).getValue(),
+                Objects.isNull(waitStrategy) ? null : waitStrategy.getValue());
+    }
+
+    private static BError validateTopicFilter(Object topicFilter) {
+        if (Objects.isNull(topicFilter)) {
+            return null;
+        }
+        try {
+            MqttUtils.getMatchingTopicFilter(((BString) topicFilter).getValue());
+        } catch (IllegalArgumentException e) {
+            return MqttUtils.createMqttError(e);
+        }
+        return null;
+    }
+
+    private static void openReceiveQueue(BObject clientObject, BObject streamIterator, Object topicFilter) {
+        ReceiveRouter receiveRouter = (ReceiveRouter) clientObject.getNativeData(RECEIVE_ROUTER);
+        streamIterator.addNativeData(RECEIVE_ROUTER, receiveRouter);
+        if (Objects.isNull(topicFilter)) {
+            streamIterator.addNativeData(RESPONSE_QUEUE, receiveRouter.openDefault());
+            return;
+        }
+        String filter = MqttUtils.getMatchingTopicFilter(((BString) topicFilter).getValue());
+        streamIterator.addNativeData(TOPIC_FILTER, filter);
+        streamIterator.addNativeData(RESPONSE_QUEUE, receiveRouter.openFiltered(filter));
+    }
+
     private static void setWillMessage(BMap<BString, Object> clientConfiguration, MqttConnectionOptions options) {
         if (clientConfiguration.containsKey(WILL_DETAILS)) {
             BMap willDetails = (BMap) clientConfiguration.get(WILL_DETAILS);
@@ -201,4 +449,31 @@ public final class ClientActions {
             options.setWill(destinationTopic, willMessage);
         }
     }
+
+    private static class PublishFailureListener implements MqttActionListener {
+
+        @Override
+        public void onSuccess(IMqttToken asyncActionToken) {}
+
+        @Override
+        public void onFailure(IMqttToken asyncActionToken, Throwable exception) {
+            if (asyncActionToken.getUserContext() instanceof CompletableFuture<?> delivery) {
+                Exception cause = exception instanceof Exception e ? e : new Exception(exception);
+                ((CompletableFuture<Object>) delivery).complete(MqttUtils.createMqttError(cause));
+            }
+        }
+    }
+
+    private static class WindowReleaseListener implements MqttActionListener {
+
+        @Override
+        public void onSuccess(IMqttToken asyncActionToken) {
+            ((InflightWindow) asyncActionToken.getUserContext()).release();
+        }
+
+        @Override
+        public void onFailure(IMqttToken asyncActionToken, Throwable exception) {
+            ((InflightWindow) asyncActionToken.getUserContext()).release();
+        }
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.client;
+
+import io.ballerina.runtime.api.values.BError;
+import io.ballerina.stdlib.mqtt.utils.MqttUtils;
+
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.BACKPRESSURE_FAIL;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.BACKPRESSURE_QUEUE;
+
+/**
+ * Limits the number of QoS 1 and QoS 2 messages of a client that are waiting for an acknowledgement from the server,
+ * and the number of QoS 0 messages that are not yet written to the network. The window is capped at the receive
+ * maximum of the current connection.
+ */
+final class InflightWindow {
+
+    // The receive maximum of a server that does not advertise one, which is also the largest it can advertise
+    static final int MAX_RECEIVE_MAXIMUM = 65_535;
+
+    private final int maxInflight;
+    private final WindowPermits permits;
+    private final String backpressurePolicy;
+    private final int maxQueued;
+    private final AtomicInteger queued = new AtomicInteger();
+    private volatile int limit;
+
+    InflightWindow(int maxInflight, String backpressurePolicy, int maxQueued) {
+        this.maxInflight = maxInflight;
+        this.limit = maxInflight;
+        this.permits = new WindowPermits(maxInflight);
+        this.backpressurePolicy = backpressurePolicy;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Resizes the window to the configured maximum capped at the receive maximum of a new connection. Shrinking the
+     * window does not fail the messages already in flight; new publishes wait until enough of them are acknowledged.
+     *
+     * @param receiveMaximum the receive maximum advertised by the server, or {@code null} if it is not advertised
+     */
+    synchronized void limitTo(Integer receiveMaximum) {
+        int newLimit = Math.min(maxInflight, Objects.isNull(receiveMaximum) ? MAX_RECEIVE_MAXIMUM : receiveMaximum);
+        if (newLimit > limit) {
+            permits.release(newLimit - limit);
+        } else if (newLimit < limit) {
+            permits.shrink(limit - newLimit);
+        }
+        limit = newLimit;
+    }
+
+    boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    /**
+     * Takes a slot of the window, applying the backpressure policy if the window is full.
+     *
+     * @return {@code null} if a slot was taken or else the error to complete the publish with
+     */
+    BError acquire() {
+        if (permits.tryAcquire()) {
+            return null;
+        }
+        if (BACKPRESSURE_FAIL.equals(backpressurePolicy)) {
+            return MqttUtils.createMqttError(new Exception("In-flight window of " + limit +
+                    " messages is full"));
+        }
+        boolean bounded = BACKPRESSURE_QUEUE.equals(backpressurePolicy);
+        if (bounded && queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return MqttUtils.createMqttError(new Exception("Publish queue of " + maxQueued + " messages is full"));
+        }
+        try {
+            permits.acquire();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return MqttUtils.createMqttError(e);
+        } finally {
+            if (bounded) {
+                queued.decrementAndGet();
+            }
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    private static final class WindowPermits extends Semaphore {
+
+        WindowPermits(int permits) {
+            super(permits);
+        }
+
+        void shrink(int reduction) {
+            reducePermits(reduction);
+        }
+    }
+}
@@ -18,8 +18,6 @@
 
 package io.ballerina.stdlib.mqtt.client;
 
-import io.ballerina.runtime.api.values.BMap;
-import io.ballerina.runtime.api.values.BString;
 import org.eclipse.paho.mqttv5.client.IMqttToken;
 import org.eclipse.paho.mqttv5.client.MqttCallback;
 import org.eclipse.paho.mqttv5.client.MqttDisconnectResponse;
@@ -27,9 +25,8 @@ import org.eclipse.paho.mqttv5.common.MqttException;
 import org.eclipse.paho.mqttv5.common.MqttMessage;
 import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CompletableFuture;
 
-import static io.ballerina.stdlib.mqtt.utils.MqttUtils.getBMqttMessage;
 import static io.ballerina.stdlib.mqtt.utils.MqttUtils.getMqttDeliveryToken;
 
 /**
@@ -37,12 +34,10 @@ import static io.ballerina.stdlib.mqtt.utils.MqttUtils.getMqttDeliveryToken;
  */
 public class MqttClientCallbackImpl implements MqttCallback {
 
-    private final LinkedBlockingQueue blockingQueue;
-    private final LinkedBlockingQueue deliveryTokenQueue;
+    private final ReceiveRouter receiveRouter;
 
-    public MqttClientCallbackImpl(LinkedBlockingQueue blockingQueue, LinkedBlockingQueue deliveryTokenQueue) {
-        this.blockingQueue = blockingQueue;
-        this.deliveryTokenQueue = deliveryTokenQueue;
+    MqttClientCallbackImpl(ReceiveRouter receiveRouter) {
+        this.receiveRouter = receiveRouter;
     }
 
     public void disconnected(MqttDisconnectResponse disconnectResponse) {}
@@ -52,17 +47,13 @@ public class MqttClientCallbackImpl implements MqttCallback {
 
     @Override
     public void messageArrived(String topic, MqttMessage message) throws Exception {
-        BMap<BString, Object> bMqttMessage = getBMqttMessage(message, topic);
-        blockingQueue.put(bMqttMessage);
+        receiveRouter.route(topic, message);
     }
 
     @Override
     public void deliveryComplete(IMqttToken token) {
-        BMap<BString, Object> bMqttToken = getMqttDeliveryToken(token);
-        try {
-            deliveryTokenQueue.put(bMqttToken);
-        } catch (InterruptedException exception) {
-            exception.printStackTrace();
+        if (token.getUserContext() instanceof CompletableFuture<?> delivery) {
+            ((CompletableFuture<Object>) delivery).complete(getMqttDeliveryToken(token));
         }
     }
 
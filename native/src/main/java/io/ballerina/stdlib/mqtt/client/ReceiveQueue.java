@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.client;
+
+import io.ballerina.runtime.api.values.BError;
+import io.ballerina.stdlib.mqtt.utils.MqttUtils;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.OVERFLOW_DROP_NEWEST;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.OVERFLOW_DROP_OLDEST;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.OVERFLOW_FAIL;
+
+/**
+ * Holds the messages received by a client until they are read through the receive streams, applying the overflow
+ * policy when a message arrives while the queue is full. Messages are only added from the callback thread of the
+ * client, so there is a single producer.
+ */
+final class ReceiveQueue {
+
+    private final int capacity;
+    private final String overflowPolicy;
+    private final BlockingQueue<ReceivedMessage> messages;
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private volatile BError failure;
+
+    /**
+     * Creates a receive queue. The messages are held in a preallocated {@link RingBufferQueue} when a wait strategy
+     * is given, or else in a linked queue. The capacity of a ring buffer is capped at
+     * {@link RingBufferQueue#MAX_CAPACITY}.
+     */
+    ReceiveQueue(int capacity, String overflowPolicy, String waitStrategy) {
+        this.overflowPolicy = overflowPolicy;
+        if (Objects.isNull(waitStrategy)) {
+            this.capacity = capacity;
+            this.messages = new LinkedBlockingQueue<>(capacity);
+        } else {
+            this.capacity = Math.min(capacity, RingBufferQueue.MAX_CAPACITY);
+            this.messages = new RingBufferQueue<>(this.capacity, waitStrategy);
+        }
+    }
+
+    /**
+     * Adds a received message to the queue.
+     *
+     * @throws InterruptedException if the callback thread is interrupted while waiting for space
+     * @throws IllegalStateException if the queue is full and the policy is {@code FAIL}, which makes the client close
+     *                               the connection
+     */
+    void add(ReceivedMessage message) throws InterruptedException {
+        if (Objects.nonNull(failure)) {
+            droppedMessages.incrementAndGet();
+            return;
+        }
+        if (messages.offer(message)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case OVERFLOW_DROP_NEWEST -> droppedMessages.incrementAndGet();
+            case OVERFLOW_DROP_OLDEST -> {
+                while (!messages.offer(message)) {
+                    if (Objects.nonNull(messages.poll())) {
+                        droppedMessages.incrementAndGet();
+                    }
+                }
+            }
+            case OVERFLOW_FAIL -> {
+                droppedMessages.incrementAndGet();
+                String reason = "Receive queue of " + capacity + " messages is full";
+                failure = MqttUtils.createMqttError(new Exception(reason));
+                throw new IllegalStateException(reason);
+            }
+            default -> messages.put(message);
+        }
+    }
+
+    /**
+     * Waits for the next received message. Once the queue has failed, the remaining messages are returned first and
+     * then the failure. The failure can only happen while the queue is full, so a reader never waits on an empty
+     * queue after it.
+     *
+     * @return the next {@link ReceivedMessage} or else the {@code Error} the queue failed with
+     */
+    Object take() throws InterruptedException {
+        ReceivedMessage message = messages.poll();
+        if (Objects.nonNull(message)) {
+            return message;
+        }
+        if (Objects.nonNull(failure)) {
+            return failure;
+        }
+        return messages.take();
+    }
+
+    /**
+     * Waits for the next received message and then for at most {@code maxWaitNanos} more for the batch to fill up to
+     * {@code maxMessages}. Messages that are already queued are moved to the batch at once.
+     *
+     * @return {@code null} or else the {@code Error} the queue failed with, if no message is left to return
+     */
+    BError takeBatch(List<Object> batch, int maxMessages, long maxWaitNanos) throws InterruptedException {
+        Object first = take();
+        if (first instanceof BError error) {
+            return error;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxMessages) {
+            if (messages.drainTo(batch, maxMessages - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            ReceivedMessage message = messages.poll(remaining, TimeUnit.NANOSECONDS);
+            if (Objects.isNull(message)) {
+                break;
+            }
+            batch.add(message);
+        }
+        return null;
+    }
+
+    void clear() {
+        messages.clear();
+    }
+
+    int size() {
+        return messages.size();
+    }
+
+    long getDroppedMessages() {
+        return droppedMessages.get();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.client;
+
+import io.ballerina.stdlib.mqtt.utils.TopicTrie;
+import org.eclipse.paho.mqttv5.common.MqttMessage;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes the messages received by a client to the queues of its receive streams. Streams opened with a topic filter
+ * get their own queue and only carry the messages that match the filter. Streams opened without a filter share the
+ * default queue, which gets the messages that match no filter. Messages are queued as they are received and converted
+ * by the stream that reads them.
+ */
+final class ReceiveRouter {
+
+    private final ReceiveQueue defaultQueue;
+    private final int capacity;
+    private final String overflowPolicy;
+    private final String waitStrategy;
+    private final TopicTrie<ReceiveQueue> filteredQueues = new TopicTrie<>();
+    private final Set<ReceiveQueue> openQueues = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger unfilteredStreams = new AtomicInteger();
+    private final AtomicLong unroutedMessages = new AtomicLong();
+
+    ReceiveRouter(int capacity, String overflowPolicy, String waitStrategy) {
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.waitStrategy = waitStrategy;
+        this.defaultQueue = new ReceiveQueue(capacity, overflowPolicy, waitStrategy);
+    }
+
+    void route(String topic, MqttMessage message) throws InterruptedException {
+        if (openQueues.isEmpty()) {
+            defaultQueue.add(new ReceivedMessage(topic, message));
+            return;
+        }
+        List<ReceiveQueue> matches = filteredQueues.match(topic);
+        if (!matches.isEmpty()) {
+            // The message is immutable until a stream converts it, so the matching queues share it
+            ReceivedMessage receivedMessage = new ReceivedMessage(topic, message);
+            for (ReceiveQueue queue : matches) {
+                queue.add(receivedMessage);
+            }
+        } else if (unfilteredStreams.get() > 0) {
+            defaultQueue.add(new ReceivedMessage(topic, message));
+        } else {
+            unroutedMessages.incrementAndGet();
+        }
+    }
+
+    ReceiveQueue openDefault() {
+        unfilteredStreams.incrementAndGet();
+        return defaultQueue;
+    }
+
+    ReceiveQueue openFiltered(String topicFilter) {
+        ReceiveQueue queue = new ReceiveQueue(capacity, overflowPolicy, waitStrategy);
+        // The filter goes in first, so that a message that sees the queue as open is also routed to it
+        filteredQueues.add(topicFilter, queue);
+        openQueues.add(queue);
+        return queue;
+    }
+
+    void closeDefault() {
+        // The default queue is shared by the streams opened without a filter, so it is only cleared with the last one
+        if (unfilteredStreams.decrementAndGet() == 0) {
+            defaultQueue.clear();
+        }
+    }
+
+    void closeFiltered(String topicFilter, ReceiveQueue queue) {
+        filteredQueues.remove(topicFilter, queue);
+        openQueues.remove(queue);
+        unroutedMessages.addAndGet(queue.getDroppedMessages());
+        queue.clear();
+    }
+
+    int size() {
+        int size = defaultQueue.size();
+        for (ReceiveQueue queue : openQueues) {
+            size += queue.size();
+        }
+        return size;
+    }
+
+    long getDroppedMessages() {
+        long droppedMessages = defaultQueue.getDroppedMessages() + unroutedMessages.get();
+        for (ReceiveQueue queue : openQueues) {
+            droppedMessages += queue.getDroppedMessages();
+        }
+        return droppedMessages;
+    }
+}
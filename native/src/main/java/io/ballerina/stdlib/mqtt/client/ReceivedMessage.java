@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.client;
+
+import org.eclipse.paho.mqttv5.common.MqttMessage;
+
+/**
+ * A message held in a receive queue along with the topic it was received on. It is only converted to the type of the
+ * stream when the stream reads it, so that messages that are dropped are never converted.
+ */
+final class ReceivedMessage {
+
+    private final String topic;
+    private final MqttMessage message;
+
+    ReceivedMessage(String topic, MqttMessage message) {
+        this.topic = topic;
+        this.message = message;
+    }
+
+    String getTopic() {
+        return topic;
+    }
+
+    MqttMessage getMessage() {
+        return message;
+    }
+}
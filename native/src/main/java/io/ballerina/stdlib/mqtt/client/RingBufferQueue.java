@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.client;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.WAIT_STRATEGY_PARK;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.WAIT_STRATEGY_SPIN;
+
+/**
+ * A preallocated, bounded queue for a single producer and any number of consumers. Each slot carries a sequence
+ * number, so that the producer publishes a message and a consumer claims it without taking a lock or allocating a
+ * node. A thread that has to wait for a message or for a free slot first checks again for a short while, following
+ * the configured wait strategy: {@code SPIN} busy-waits, {@code YIELD} yields the thread between checks and
+ * {@code PARK} does not check again. It then blocks until the other side signals it. The lock that it blocks on is
+ * only taken by the other side while a thread is waiting.
+ * <p>
+ * Only the callback thread of the client adds messages, which is what makes the producer side safe without atomics.
+ * Iterating the queue returns a snapshot of the messages in it, and removing a message other than the head is not
+ * supported.
+ *
+ * @param <E> the type of the queued elements
+ */
+final class RingBufferQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    /**
+     * The largest capacity of a ring buffer queue. The slots are preallocated, so a larger configured capacity is
+     * capped at this.
+     */
+    static final int MAX_CAPACITY = 1 << 16;
+
+    private static final int SPIN_CHECKS = 10_000;
+    private static final int YIELD_CHECKS = 100;
+
+    private final int capacity;
+    private final int mask;
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final String waitStrategy;
+    private final int checksBeforeBlocking;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final AtomicInteger waitingConsumers = new AtomicInteger();
+    private final AtomicInteger waitingProducers = new AtomicInteger();
+    private volatile long tail;
+
+    RingBufferQueue(int capacity, String waitStrategy) {
+        int slotCount = capacity <= 1 ? 1 : Integer.highestOneBit(Math.min(capacity, MAX_CAPACITY) - 1) << 1;
+        this.capacity = Math.min(capacity, slotCount);
+        this.mask = slotCount - 1;
+        this.slots = new Object[slotCount];
+        this.sequences = new AtomicLongArray(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            sequences.set(i, i);
+        }
+        this.waitStrategy = waitStrategy;
+        this.checksBeforeBlocking = switch (waitStrategy) {
+            case WAIT_STRATEGY_SPIN -> SPIN_CHECKS;
+            case WAIT_STRATEGY_PARK -> 0;
+            default -> YIELD_CHECKS;
+        };
+    }
+
+    @Override
+    public boolean offer(E element) {
+        Objects.requireNonNull(element);
+        long position = tail;
+        if (position - head.get() >= capacity) {
+            return false;
+        }
+        int index = (int) position & mask;
+        if (sequences.get(index) != position) {
+            // A consumer has claimed the slot of the previous lap but not released it yet
+            return false;
+        }
+        slots[index] = element;
+        sequences.set(index, position + 1);
+        tail = position + 1;
+        if (waitingConsumers.get() > 0) {
+            signal(notEmpty);
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference < 0) {
+                return null;
+            }
+            if (difference == 0 && head.compareAndSet(position, position + 1)) {
+                E element = (E) slots[index];
+                slots[index] = null;
+                sequences.set(index, position + mask + 1);
+                if (waitingProducers.get() > 0) {
+                    signal(notFull);
+                }
+                return element;
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        long position = head.get();
+        int index = (int) position & mask;
+        return sequences.get(index) == position + 1 ? (E) slots[index] : null;
+    }
+
+    @Override
+    public void put(E element) throws InterruptedException {
+        offer(element, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException {
+        for (int i = 0; i < checksBeforeBlocking; i++) {
+            if (offer(element)) {
+                return true;
+            }
+            backOff();
+        }
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        waitingProducers.incrementAndGet();
+        try {
+            // Waiting is announced before checking again, so that a consumer that frees a slot after the check
+            // sees the waiting producer and signals it
+            while (!offer(element)) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            waitingProducers.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        return poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E element;
+        for (int i = 0; i < checksBeforeBlocking; i++) {
+            if ((element = poll()) != null) {
+                return element;
+            }
+            backOff();
+        }
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        waitingConsumers.incrementAndGet();
+        try {
+            // Waiting is announced before checking again, so that the producer that adds a message after the check
+            // sees the waiting consumer and signals it
+            while ((element = poll()) == null) {
+                if (remaining <= 0) {
+                    return null;
+                }
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            return element;
+        } finally {
+            waitingConsumers.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> collection, int maxElements) {
+        int drained = 0;
+        E element;
+        while (drained < maxElements && (element = poll()) != null) {
+            collection.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    @Override
+    public int size() {
+        long currentHead = head.get();
+        return (int) Math.max(0, Math.min(capacity, tail - currentHead));
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the messages in the queue, from the head to the tail. The iterator does
+     * not see the messages added or taken after it is created, and does not support removing messages.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+        List<E> snapshot = new ArrayList<>(size());
+        long end = tail;
+        for (long position = Math.max(head.get(), end - capacity); position < end; position++) {
+            int index = (int) position & mask;
+            // The slot is only read while its sequence shows that it still holds the message of this position
+            if (sequences.get(index) != position + 1) {
+                continue;
+            }
+            Object element = slots[index];
+            if (Objects.nonNull(element) && sequences.get(index) == position + 1) {
+                snapshot.add((E) element);
+            }
+        }
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
+    private void backOff() {
+        if (WAIT_STRATEGY_SPIN.equals(waitStrategy)) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    private void signal(Condition condition) {
+        lock.lock();
+        try {
+            condition.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
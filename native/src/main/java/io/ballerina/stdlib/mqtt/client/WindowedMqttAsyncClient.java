@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.client;
+
+import org.eclipse.paho.mqttv5.client.IMqttToken;
+import org.eclipse.paho.mqttv5.client.MqttActionListener;
+import org.eclipse.paho.mqttv5.client.MqttAsyncClient;
+import org.eclipse.paho.mqttv5.client.MqttConnectionOptions;
+import org.eclipse.paho.mqttv5.client.persist.MemoryPersistence;
+import org.eclipse.paho.mqttv5.common.MqttException;
+import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
+
+import java.util.Objects;
+
+/**
+ * An {@link MqttAsyncClient} that sizes the in-flight window of the client to the receive maximum the server advertises
+ * in the CONNACK of every connection. Paho makes the automatic reconnects and the explicit ones through
+ * {@link #connect(MqttConnectionOptions, Object, MqttActionListener)} as well, so a reconnect to a server with a
+ * different receive maximum resizes the window.
+ */
+final class WindowedMqttAsyncClient extends MqttAsyncClient {
+
+    private final InflightWindow inflightWindow;
+
+    WindowedMqttAsyncClient(String serverUri, String clientId, InflightWindow inflightWindow) throws MqttException {
+        super(serverUri, clientId, new MemoryPersistence());
+        this.inflightWindow = inflightWindow;
+    }
+
+    @Override
+    public IMqttToken connect(MqttConnectionOptions options, Object userContext, MqttActionListener callback)
+            throws MqttException {
+        return super.connect(options, userContext, new MqttActionListener() {
+            @Override
+            public void onSuccess(IMqttToken asyncActionToken) {
+                MqttProperties connAckProperties = asyncActionToken.getResponseProperties();
+                inflightWindow.limitTo(Objects.isNull(connAckProperties) ? null :
+                        connAckProperties.getReceiveMaximum());
+                if (Objects.nonNull(callback)) {
+                    callback.onSuccess(asyncActionToken);
+                }
+            }
+
+            @Override
+            public void onFailure(IMqttToken asyncActionToken, Throwable exception) {
+                if (Objects.nonNull(callback)) {
+                    callback.onFailure(asyncActionToken, exception);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.listener;
+
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.values.BError;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BString;
+import io.ballerina.stdlib.mqtt.utils.MqttUtils;
+import org.eclipse.paho.mqttv5.client.MqttAsyncClient;
+import org.eclipse.paho.mqttv5.common.MqttException;
+import org.eclipse.paho.mqttv5.common.MqttMessage;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.ballerina.stdlib.mqtt.utils.ModuleUtils.getModule;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.AVERAGE_ACK_LATENCY;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.COMPLETED_ACKS;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.MAX_ACK_LATENCY;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RECORD_LISTENER_METRICS;
+
+/**
+ * Acknowledges the received messages of a listener as soon as they are completed and keeps the metrics of the
+ * acknowledgements. MQTT acknowledges each message with its own packet, so holding completed messages back to
+ * acknowledge them together would only delay them.
+ */
+public final class Acknowledger {
+
+    private final MqttAsyncClient subscriber;
+
+    private final LongAdder completedAcks = new LongAdder();
+    private final LongAdder totalAckLatencyNanos = new LongAdder();
+    private final AtomicLong maxAckLatencyNanos = new AtomicLong();
+
+    Acknowledger(MqttAsyncClient subscriber) {
+        this.subscriber = subscriber;
+    }
+
+    /**
+     * Acknowledges the given message, unless it is already completed, and returns the error of acknowledging it.
+     */
+    public BError complete(PendingMessage pendingMessage) {
+        if (!pendingMessage.markCompleted()) {
+            return null;
+        }
+        MqttMessage message = pendingMessage.getMessage();
+        try {
+            subscriber.messageArrivedComplete(message.getId(), message.getQos());
+        } catch (MqttException e) {
+            return MqttUtils.createMqttError(e);
+        }
+        long latencyNanos = System.nanoTime() - pendingMessage.getArrivalNanos();
+        completedAcks.increment();
+        totalAckLatencyNanos.add(latencyNanos);
+        maxAckLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        return null;
+    }
+
+    BMap<BString, Object> getMetrics() {
+        BMap<BString, Object> metrics = ValueCreator.createRecordValue(getModule(), RECORD_LISTENER_METRICS);
+        long acknowledged = completedAcks.sum();
+        long averageNanos = acknowledged == 0 ? 0 : totalAckLatencyNanos.sum() / acknowledged;
+        metrics.put(COMPLETED_ACKS, acknowledged);
+        metrics.put(AVERAGE_ACK_LATENCY, ValueCreator.createDecimalValue(BigDecimal.valueOf(averageNanos, 9)));
+        metrics.put(MAX_ACK_LATENCY, ValueCreator.createDecimalValue(BigDecimal.valueOf(maxAckLatencyNanos.get(),
+                9)));
+        return metrics;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.listener;
+
+import io.ballerina.runtime.api.types.Parameter;
+import io.ballerina.runtime.api.types.RemoteMethodType;
+import io.ballerina.runtime.api.types.ServiceType;
+import io.ballerina.runtime.api.values.BObject;
+import io.ballerina.stdlib.mqtt.utils.MessageBinder;
+
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.ONCOMPLETE;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.ONERROR;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.ONMESSAGE;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.ONMESSAGES;
+
+/**
+ * The remote methods of an attached service, resolved once at attach time so that the callbacks do not look them up
+ * for every message.
+ */
+final class DispatchPlan {
+
+    private final boolean onMessage;
+    private final boolean onMessages;
+    private final boolean callerParameter;
+    private final MessageBinder messageBinder;
+    private final boolean onError;
+    private final boolean onComplete;
+
+    private DispatchPlan(boolean onMessage, boolean onMessages, boolean callerParameter, MessageBinder messageBinder,
+                         boolean onError, boolean onComplete) {
+        this.onMessage = onMessage;
+        this.onMessages = onMessages;
+        this.callerParameter = callerParameter;
+        this.messageBinder = messageBinder;
+        this.onError = onError;
+        this.onComplete = onComplete;
+    }
+
+    static DispatchPlan of(BObject service) {
+        boolean onMessage = false;
+        boolean onMessages = false;
+        boolean callerParameter = false;
+        MessageBinder messageBinder = null;
+        boolean onError = false;
+        boolean onComplete = false;
+        for (RemoteMethodType methodType : ((ServiceType) service.getOriginalType()).getRemoteMethods()) {
+            switch (methodType.getName()) {
+                case ONMESSAGE -> {
+                    Parameter[] parameters = methodType.getType().getParameters();
+                    onMessage = true;
+                    callerParameter = parameters.length == 2;
+                    messageBinder = parameters.length > 0 ? MessageBinder.of(parameters[0].type) : null;
+                }
+                case ONMESSAGES -> {
+                    onMessages = true;
+                    callerParameter = methodType.getType().getParameters().length == 2;
+                }
+                case ONERROR -> onError = true;
+                case ONCOMPLETE -> onComplete = true;
+                default -> {
+                }
+            }
+        }
+        return new DispatchPlan(onMessage, onMessages, callerParameter, messageBinder, onError, onComplete);
+    }
+
+    boolean hasOnMessage() {
+        return onMessage;
+    }
+
+    boolean hasOnMessages() {
+        return onMessages;
+    }
+
+    /**
+     * Returns whether {@code onMessage}, or {@code onMessages} for a batch service, takes a caller.
+     */
+    boolean hasCallerParameter() {
+        return callerParameter;
+    }
+
+    /**
+     * Returns the binder of the first parameter of {@code onMessage}, which turns a received message into the message
+     * or the payload type the service declares.
+     */
+    MessageBinder getMessageBinder() {
+        return messageBinder;
+    }
+
+    boolean hasOnError() {
+        return onError;
+    }
+
+    boolean hasOnComplete() {
+        return onComplete;
+    }
+}
@@ -19,19 +19,29 @@
 package io.ballerina.stdlib.mqtt.listener;
 
 import io.ballerina.runtime.api.Environment;
+import io.ballerina.runtime.api.Module;
+import io.ballerina.runtime.api.types.ObjectType;
 import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.utils.TypeUtils;
 import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BDecimal;
 import io.ballerina.runtime.api.values.BError;
 import io.ballerina.runtime.api.values.BMap;
 import io.ballerina.runtime.api.values.BObject;
 import io.ballerina.runtime.api.values.BString;
+import io.ballerina.stdlib.mqtt.utils.ActionCompletionListener;
+import io.ballerina.stdlib.mqtt.utils.ModuleUtils;
 import io.ballerina.stdlib.mqtt.utils.MqttConstants;
 import io.ballerina.stdlib.mqtt.utils.MqttUtils;
-import org.eclipse.paho.mqttv5.client.MqttClient;
+import org.eclipse.paho.mqttv5.client.MqttAsyncClient;
 import org.eclipse.paho.mqttv5.client.MqttConnectionOptions;
 import org.eclipse.paho.mqttv5.client.persist.MemoryPersistence;
 import org.eclipse.paho.mqttv5.common.MqttException;
-import org.eclipse.paho.mqttv5.common.MqttSubscription;
+import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Class containing the external methods of the listener.
@@ -40,16 +50,60 @@ public final class ListenerActions {
 
     private ListenerActions() {}
 
-    public static Object externInit(BObject clientObject, BString serverUri, BString clientId,
+    public static Object externInit(Environment env, BObject clientObject, BString serverUri, BString clientId,
                                     BMap<BString, Object> listenerConfiguration) {
         try {
-            MqttClient subscriber = new MqttClient(serverUri.getValue(), clientId.getValue(), new MemoryPersistence());
+            MqttAsyncClient subscriber = new MqttAsyncClient(serverUri.getValue(), clientId.getValue(),
+                    new MemoryPersistence());
             MqttConnectionOptions options = MqttUtils.getMqttConnectOptions(listenerConfiguration);
             boolean manualAcks = listenerConfiguration.getBooleanValue(StringUtils
                     .fromString(MqttConstants.MANUAL_ACKS));
-            subscriber.setManualAcks(manualAcks);
-            subscriber.connect(options);
+            long concurrency = listenerConfiguration.getIntValue(MqttConstants.CONCURRENCY);
+            if (concurrency < 1) {
+                return MqttUtils.createMqttError(new Exception("Concurrency of the listener should be positive"));
+            }
+            long maxInflightMessages = listenerConfiguration.getIntValue(MqttConstants.MAX_INFLIGHT_MESSAGES);
+            if (maxInflightMessages < 1) {
+                return MqttUtils.createMqttError(new Exception("Maximum in-flight messages should be positive"));
+            }
+            BMap batchConfiguration = listenerConfiguration.getMapValue(MqttConstants.BATCH_CONFIGURATION);
+            long maxBatchMessages = batchConfiguration.getIntValue(MqttConstants.BATCH_MAX_MESSAGES);
+            if (maxBatchMessages < 1) {
+                return MqttUtils.createMqttError(new Exception("Maximum messages of a batch should be positive"));
+            }
+            if (maxBatchMessages > maxInflightMessages) {
+                // The messages of a batch are all in flight, so a larger batch could never fill up
+                return MqttUtils.createMqttError(new Exception("Maximum messages of a batch should not exceed the " +
+                        "maximum in-flight messages"));
+            }
+            long batchLingerNanos = (long) (((BDecimal) batchConfiguration.get(MqttConstants.LINGER_TIME))
+                    .floatValue() * 1_000_000_000);
+            long drainTimeoutNanos = (long) (((BDecimal) listenerConfiguration.get(MqttConstants.DRAIN_TIMEOUT))
+                    .floatValue() * 1_000_000_000);
+            if (drainTimeoutNanos < 0) {
+                return MqttUtils.createMqttError(new Exception("Drain timeout should not be negative"));
+            }
+            RetryPolicy retryPolicy = RetryPolicy.of(listenerConfiguration.getMapValue(
+                    MqttConstants.RETRY_CONFIGURATION));
+            // Messages are acknowledged by the listener once all the services they are routed to have handled them
+            subscriber.setManualAcks(true);
+            MqttListenerCallbackImpl callback = new MqttListenerCallbackImpl(env, subscriber,
+                    listenerConfiguration.getBooleanValue(MqttConstants.LAZY_PROPERTIES), (int) concurrency,
+                    listenerConfiguration.getStringValue(MqttConstants.ORDERING).getValue(), (int) maxInflightMessages,
+                    manualAcks, (int) maxBatchMessages, batchLingerNanos, retryPolicy);
+            subscriber.setCallback(callback);
+            ActionCompletionListener connectListener = new ActionCompletionListener();
+            subscriber.connect(options, null, connectListener);
+            Object result = connectListener.await(env);
+            if (result instanceof BError) {
+                return result;
+            }
             clientObject.addNativeData(MqttConstants.MQTT_CLIENT, subscriber);
+            clientObject.addNativeData(MqttConstants.SERVICE_ROUTER, callback.getServiceRouter());
+            clientObject.addNativeData(MqttConstants.ACKNOWLEDGER, callback.getAcknowledger());
+            clientObject.addNativeData(MqttConstants.RETRY_POLICY, retryPolicy);
+            clientObject.addNativeData(MqttConstants.LISTENER_CALLBACK, callback);
+            clientObject.addNativeData(MqttConstants.DRAIN_TIMEOUT_NANOS, drainTimeoutNanos);
         } catch (BError e) {
             return e;
         } catch (Exception e) {
@@ -58,62 +112,134 @@ public final class ListenerActions {
         return null;
     }
 
-    public static Object externAttach(Environment environment, BObject clientObject, BObject service, Object topics) {
-        clientObject.addNativeData("service", service);
-        MqttClient subscriber = (MqttClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
-        subscriber.setCallback(new MqttListenerCallbackImpl(environment, service, subscriber));
-        return null;
-    }
-
-    public static Object externDetach(BObject clientObject, BObject service) {
-        MqttClient subscriber = (MqttClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+    public static Object externAttach(BObject clientObject, BObject service, Object name) {
+        // A service attached for a shared subscription is matched against the topics of its messages
+        List<String> topicFilters = new ArrayList<>();
         try {
-            subscriber.disconnect();
-        } catch (MqttException e) {
+            for (String topicFilter : getTopicFilters(service)) {
+                topicFilters.add(MqttUtils.getMatchingTopicFilter(topicFilter));
+            }
+        } catch (IllegalArgumentException e) {
             return MqttUtils.createMqttError(e);
         }
-        clientObject.addNativeData(MqttConstants.SERVICE, null);
+        ServiceRouter serviceRouter = (ServiceRouter) clientObject.getNativeData(MqttConstants.SERVICE_ROUTER);
+        serviceRouter.attach(service, topicFilters);
         return null;
     }
 
-    public static Object externStart(BObject clientObject, BArray subscriptions) {
-        MqttClient subscriber = (MqttClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
-        MqttSubscription[] mqttSubscriptions = new MqttSubscription[subscriptions.size()];
-        for (int i = 0; i < subscriptions.size(); i++) {
-            BMap topicSubscription = (BMap) subscriptions.getValues()[i];
-            mqttSubscriptions[i] = new MqttSubscription(topicSubscription.getStringValue(MqttConstants.TOPIC)
-                    .getValue(), topicSubscription.getIntValue(MqttConstants.BQOS).intValue());
+    private static String[] getTopicFilters(BObject service) {
+        Module module = ModuleUtils.getModule();
+        ObjectType serviceType = (ObjectType) TypeUtils.getImpliedType(TypeUtils.getType(service));
+        Object serviceConfig = serviceType.getAnnotation(StringUtils.fromString(module.getOrg() + "/" +
+                module.getName() + ":" + module.getMajorVersion() + ":" + MqttConstants.SERVICE_CONFIG));
+        if (!(serviceConfig instanceof BMap<?, ?> config)) {
+            return new String[0];
+        }
+        Object topicFilters = config.get(MqttConstants.TOPIC_FILTERS);
+        if (topicFilters instanceof BString topicFilter) {
+            return new String[]{topicFilter.getValue()};
         }
+        return ((BArray) topicFilters).getStringArray();
+    }
+
+    public static Object externDetach(Environment env, BObject clientObject, BObject service) {
+        ServiceRouter serviceRouter = (ServiceRouter) clientObject.getNativeData(MqttConstants.SERVICE_ROUTER);
+        // The connection is only shared by the attached services, so it is drained and closed with the last of them
+        boolean lastService = serviceRouter.getServices().size() == 1 && Objects.nonNull(serviceRouter.find(service));
+        Object drainResult = lastService ? drain(env, clientObject) : null;
+        if (serviceRouter.detach(service)) {
+            return null;
+        }
+        Object result = disconnect(env, clientObject);
+        if (result instanceof BError) {
+            return result;
+        }
+        return drainResult;
+    }
+
+    public static Object externStart(Environment env, BObject clientObject, BArray subscriptions) {
+        MqttAsyncClient subscriber = (MqttAsyncClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+        ActionCompletionListener subscribeListener = new ActionCompletionListener();
         try {
-            subscriber.subscribe(mqttSubscriptions);
-        } catch (MqttException e) {
+            subscriber.subscribe(MqttUtils.getMqttSubscriptions(subscriptions), null, subscribeListener,
+                    new MqttProperties());
+        } catch (MqttException | IllegalArgumentException e) {
             return MqttUtils.createMqttError(e);
         }
-        return null;
+        return subscribeListener.await(env);
+    }
+
+    public static BMap<BString, Object> getMetrics(BObject clientObject) {
+        Acknowledger acknowledger = (Acknowledger) clientObject.getNativeData(MqttConstants.ACKNOWLEDGER);
+        RetryPolicy retryPolicy = (RetryPolicy) clientObject.getNativeData(MqttConstants.RETRY_POLICY);
+        BMap<BString, Object> metrics = acknowledger.getMetrics();
+        retryPolicy.addMetrics(metrics);
+        return metrics;
     }
 
-    public static Object externGracefulStop(BObject clientObject) {
-        MqttClient subscriber = (MqttClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+    public static Object externGracefulStop(Environment env, BObject clientObject) {
+        MqttAsyncClient subscriber = (MqttAsyncClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+        Object drainResult = drain(env, clientObject);
+        Object result = disconnect(env, clientObject);
+        if (result instanceof BError) {
+            return result;
+        }
         try {
-            subscriber.disconnect();
             subscriber.close();
         } catch (MqttException e) {
             return MqttUtils.createMqttError(e);
         }
-        clientObject.addNativeData(MqttConstants.SERVICE, null);
+        return drainResult;
+    }
+
+    public static Object externImmediateStop(Environment env, BObject clientObject) {
+        MqttAsyncClient subscriber = (MqttAsyncClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+        Object result = env.yieldAndRun(() -> {
+            try {
+                subscriber.disconnectForcibly();
+                subscriber.close();
+            } catch (MqttException e) {
+                return MqttUtils.createMqttError(e);
+            }
+            return null;
+        });
+        if (result instanceof BError) {
+            return result;
+        }
         return null;
     }
 
-    public static Object externImmediateStop(BObject clientObject) {
-        MqttClient subscriber = (MqttClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+    /**
+     * Waits for the messages in flight to be handled within the drain timeout of the listener. The messages that are
+     * not handled in time are left unacknowledged, so that the server redelivers them rather than them being lost,
+     * and an error is returned so that the caller learns of them.
+     */
+    private static Object drain(Environment env, BObject clientObject) {
+        MqttListenerCallbackImpl callback = (MqttListenerCallbackImpl) clientObject.getNativeData(
+                MqttConstants.LISTENER_CALLBACK);
+        long drainTimeoutNanos = (long) clientObject.getNativeData(MqttConstants.DRAIN_TIMEOUT_NANOS);
+        return env.yieldAndRun(() -> {
+            try {
+                if (callback.drain(drainTimeoutNanos)) {
+                    return null;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return MqttUtils.createMqttError(e);
+            }
+            return MqttUtils.createMqttError(new Exception("Listener did not drain within the drain timeout, so the " +
+                    "messages still in flight are left unacknowledged"));
+        });
+    }
+
+    private static Object disconnect(Environment env, BObject clientObject) {
+        MqttAsyncClient subscriber = (MqttAsyncClient) clientObject.getNativeData(MqttConstants.MQTT_CLIENT);
+        ActionCompletionListener disconnectListener = new ActionCompletionListener();
         try {
-            subscriber.disconnectForcibly();
-            subscriber.close();
+            subscriber.disconnect(null, disconnectListener);
         } catch (MqttException e) {
             return MqttUtils.createMqttError(e);
         }
-        clientObject.addNativeData(MqttConstants.SERVICE, null);
-        return null;
+        return disconnectListener.await(env);
     }
-
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.listener;
+
+import io.ballerina.stdlib.mqtt.utils.MqttExecutor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Gathers the messages of a service into batches, handing a batch over once it is full or once its first message has
+ * lingered for the configured time. Batches are handed over one at a time and in the order they were gathered, by
+ * whichever thread finds none being handled, so that adding a message never waits for a batch to be handled. Once
+ * the batcher is closed, the messages it holds and those added later are discarded rather than handed over.
+ */
+final class MessageBatcher {
+
+    private final int maxMessages;
+    private final long lingerNanos;
+    private final Consumer<List<PendingMessage>> handler;
+    private final Consumer<PendingMessage> discarder;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Queue<List<PendingMessage>> gatheredBatches = new ArrayDeque<>();
+    private List<PendingMessage> batch;
+    private ScheduledFuture<?> lingerTimer;
+    private boolean handing;
+    private boolean closed;
+
+    MessageBatcher(int maxMessages, long lingerNanos, Consumer<List<PendingMessage>> handler,
+                   Consumer<PendingMessage> discarder) {
+        this.maxMessages = maxMessages;
+        this.lingerNanos = lingerNanos;
+        this.handler = handler;
+        this.discarder = discarder;
+        this.batch = new ArrayList<>(maxMessages);
+    }
+
+    void add(PendingMessage message) {
+        boolean accepted;
+        lock.lock();
+        try {
+            accepted = !closed;
+            if (accepted) {
+                batch.add(message);
+                if (batch.size() >= maxMessages) {
+                    gather();
+                } else if (batch.size() == 1) {
+                    lingerTimer = MqttExecutor.schedule(this::flushPending, lingerNanos);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (accepted) {
+            handOver();
+        } else {
+            discarder.accept(message);
+        }
+    }
+
+    /**
+     * Hands over the messages gathered so far without waiting for the batch to fill up. This runs when the linger
+     * time of a batch elapses and when the listener is drained.
+     */
+    void flushPending() {
+        lock.lock();
+        try {
+            // A timer that fires while its batch is being gathered for being full finds a newer batch here, which is
+            // then handed over early rather than held back
+            if (closed || batch.isEmpty()) {
+                return;
+            }
+            gather();
+        } finally {
+            lock.unlock();
+        }
+        handOver();
+    }
+
+    /**
+     * Stops gathering messages once the service is detached. The messages that are not handed over yet are
+     * discarded, while a batch that is already being handled runs to its end.
+     */
+    void close() {
+        List<PendingMessage> discarded = new ArrayList<>();
+        lock.lock();
+        try {
+            closed = true;
+            cancelLingerTimer();
+            discarded.addAll(batch);
+            batch = new ArrayList<>(0);
+            for (List<PendingMessage> gatheredBatch : gatheredBatches) {
+                discarded.addAll(gatheredBatch);
+            }
+            gatheredBatches.clear();
+        } finally {
+            lock.unlock();
+        }
+        for (PendingMessage message : discarded) {
+            discarder.accept(message);
+        }
+    }
+
+    private void gather() {
+        gatheredBatches.add(batch);
+        batch = new ArrayList<>(maxMessages);
+        cancelLingerTimer();
+    }
+
+    private void cancelLingerTimer() {
+        if (Objects.nonNull(lingerTimer)) {
+            lingerTimer.cancel(false);
+            lingerTimer = null;
+        }
+    }
+
+    /**
+     * Hands the gathered batches over outside the lock, unless another thread is already doing so, in which case
+     * that thread hands them over once it is done with its own batch.
+     */
+    private void handOver() {
+        while (true) {
+            List<PendingMessage> messages;
+            lock.lock();
+            try {
+                if (handing || gatheredBatches.isEmpty()) {
+                    return;
+                }
+                handing = true;
+                messages = gatheredBatches.poll();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                handler.accept(messages);
+            } finally {
+                lock.lock();
+                try {
+                    handing = false;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -20,28 +20,33 @@ package io.ballerina.stdlib.mqtt.listener;
 
 import io.ballerina.runtime.api.Environment;
 import io.ballerina.runtime.api.Runtime;
+import io.ballerina.runtime.api.creators.TypeCreator;
 import io.ballerina.runtime.api.creators.ValueCreator;
-import io.ballerina.runtime.api.types.RemoteMethodType;
-import io.ballerina.runtime.api.types.ServiceType;
+import io.ballerina.runtime.api.values.BArray;
 import io.ballerina.runtime.api.values.BError;
 import io.ballerina.runtime.api.values.BMap;
 import io.ballerina.runtime.api.values.BObject;
 import io.ballerina.runtime.api.values.BString;
+import io.ballerina.stdlib.mqtt.caller.CallerContext;
+import io.ballerina.stdlib.mqtt.listener.ServiceRouter.AttachedService;
 import io.ballerina.stdlib.mqtt.utils.MqttConstants;
 import io.ballerina.stdlib.mqtt.utils.MqttUtils;
 import org.eclipse.paho.mqttv5.client.IMqttToken;
+import org.eclipse.paho.mqttv5.client.MqttAsyncClient;
 import org.eclipse.paho.mqttv5.client.MqttCallback;
-import org.eclipse.paho.mqttv5.client.MqttClient;
 import org.eclipse.paho.mqttv5.client.MqttDisconnectResponse;
 import org.eclipse.paho.mqttv5.common.MqttException;
 import org.eclipse.paho.mqttv5.common.MqttMessage;
 import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
+import org.eclipse.paho.mqttv5.common.packet.UserProperty;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import static io.ballerina.stdlib.mqtt.utils.ModuleUtils.getModule;
-import static io.ballerina.stdlib.mqtt.utils.MqttConstants.MESSAGE_ID;
 import static io.ballerina.stdlib.mqtt.utils.MqttUtils.getBMqttMessage;
 import static io.ballerina.stdlib.mqtt.utils.MqttUtils.getMqttDeliveryToken;
 
@@ -50,14 +55,60 @@ import static io.ballerina.stdlib.mqtt.utils.MqttUtils.getMqttDeliveryToken;
  */
 public class MqttListenerCallbackImpl implements MqttCallback {
 
+    // Marks the publishes of dead lettered messages, whose delivery is not reported to the services
+    private static final Object DEAD_LETTER_CONTEXT = new Object();
+
     private final Runtime runtime;
-    private final BObject service;
-    private final MqttClient subscriber;
+    private final ServiceRouter serviceRouter;
+    private final MqttAsyncClient subscriber;
+    private final boolean lazyProperties;
+    private final OrderedDispatcher dispatcher;
+    private final Acknowledger acknowledger;
+    private final boolean autoComplete;
+    private final Semaphore inflightMessages;
+    private final int maxInflightMessages;
+    private volatile boolean draining;
+    private final RetryPolicy retryPolicy;
 
-    public MqttListenerCallbackImpl(Environment environment, BObject service, MqttClient subscriber) {
+    public MqttListenerCallbackImpl(Environment environment, MqttAsyncClient subscriber, boolean lazyProperties,
+                                    int concurrency, String ordering, int maxInflightMessages, boolean manualAcks,
+                                    int maxBatchMessages, long batchLingerNanos, RetryPolicy retryPolicy) {
         this.runtime = environment.getRuntime();
-        this.service = service;
+        this.serviceRouter = new ServiceRouter(maxBatchMessages, batchLingerNanos, this::invokeOnMessages,
+                this::discard);
+        this.acknowledger = new Acknowledger(subscriber);
         this.subscriber = subscriber;
+        this.lazyProperties = lazyProperties;
+        this.dispatcher = new OrderedDispatcher(concurrency, ordering, this::invokeOnError);
+        this.autoComplete = !manualAcks;
+        this.inflightMessages = new Semaphore(maxInflightMessages);
+        this.maxInflightMessages = maxInflightMessages;
+        this.retryPolicy = retryPolicy;
+    }
+
+    ServiceRouter getServiceRouter() {
+        return serviceRouter;
+    }
+
+    Acknowledger getAcknowledger() {
+        return acknowledger;
+    }
+
+    /**
+     * Stops handing the received messages to the services and waits for at most the given time for the messages in
+     * flight, including those gathered into batches or waiting for a retry, to be handled.
+     *
+     * @return whether all the messages in flight were handled in time
+     */
+    boolean drain(long timeoutNanos) throws InterruptedException {
+        draining = true;
+        for (AttachedService attachedService : serviceRouter.getServices()) {
+            MessageBatcher batcher = attachedService.getBatcher();
+            if (Objects.nonNull(batcher)) {
+                batcher.flushPending();
+            }
+        }
+        return inflightMessages.tryAcquire(maxInflightMessages, timeoutNanos, TimeUnit.NANOSECONDS);
     }
 
     @Override
@@ -74,7 +125,35 @@ public class MqttListenerCallbackImpl implements MqttCallback {
 
     @Override
     public void messageArrived(String topic, MqttMessage message) {
-        invokeOnMessage(message, topic);
+        List<AttachedService> services = serviceRouter.route(topic);
+        PendingMessage pendingMessage = new PendingMessage(message, topic, services.size());
+        if (draining) {
+            return;
+        }
+        if (services.isEmpty()) {
+            // Nothing handles the message, so it is acknowledged right away
+            complete(pendingMessage);
+            return;
+        }
+        // The handlers run on the executor, so the callback thread only waits here once too many messages are in
+        // flight, which stops the client from reading further messages until the handlers catch up
+        try {
+            inflightMessages.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (draining) {
+            // A message received while the listener is drained is left unacknowledged for the server to redeliver
+            inflightMessages.release();
+            return;
+        }
+        try {
+            dispatcher.dispatch(topic, () -> handleMessage(services, pendingMessage, 0, 1));
+        } catch (RuntimeException e) {
+            inflightMessages.release();
+            invokeOnError(MqttUtils.createMqttError(e));
+        }
     }
 
     @Override
@@ -85,56 +164,233 @@ public class MqttListenerCallbackImpl implements MqttCallback {
 
     @Override
     public void deliveryComplete(IMqttToken token) {
-        invokeOnComplete(token);
+        if (token.getUserContext() == DEAD_LETTER_CONTEXT) {
+            return;
+        }
+        // Responses sent through a caller carry the service that received the request
+        if (token.getUserContext() instanceof BObject service) {
+            AttachedService attachedService = serviceRouter.find(service);
+            if (Objects.nonNull(attachedService)) {
+                invokeOnComplete(attachedService, token);
+                return;
+            }
+        }
+        for (AttachedService attachedService : serviceRouter.getServices()) {
+            invokeOnComplete(attachedService, token);
+        }
+    }
+
+    /**
+     * Hands the message to the services from the given one onwards, where the first of them is on the given attempt.
+     * When an attempt fails and should be retried, the rest is returned as a retry after the delay of the retry
+     * policy, so that the dispatcher holds back the messages queued after it without holding its thread.
+     */
+    private OrderedDispatcher.Retry handleMessage(List<AttachedService> services, PendingMessage pendingMessage,
+                                                  int first, int attempt) {
+        for (int i = first; i < services.size(); i++) {
+            AttachedService attachedService = services.get(i);
+            MessageBatcher batcher = attachedService.getBatcher();
+            if (Objects.nonNull(batcher)) {
+                batcher.add(pendingMessage);
+                continue;
+            }
+            int current = i == first ? attempt : 1;
+            if (!deliver(attachedService, pendingMessage, current)) {
+                int retried = i;
+                retryPolicy.recordRetry();
+                return new OrderedDispatcher.Retry(() -> handleMessage(services, pendingMessage, retried,
+                        current + 1), retryPolicy.getDelayNanos(current));
+            }
+        }
+        return null;
     }
 
-    private void invokeOnMessage(MqttMessage message, String topic) {
-        BMap<BString, Object> bMqttMessage = getBMqttMessage(message, topic);
-        boolean callerExists = isCallerAvailable();
-        if (!isMethodImplemented(MqttConstants.ONMESSAGE)) {
-            invokeOnError(MqttUtils.createMqttError(new NoSuchMethodException("method onMessage not found")));
+    private void release(PendingMessage pendingMessage) {
+        if (!pendingMessage.release()) {
             return;
         }
-        if (callerExists) {
-            BObject callerObject = ValueCreator.createObjectValue(getModule(), MqttConstants.CALLER);
-            callerObject.addNativeData(MqttConstants.SUBSCRIBER, subscriber);
-            callerObject.addNativeData(MESSAGE_ID, message.getId());
-            callerObject.addNativeData(MqttConstants.QOS, message.getQos());
-            if (Objects.nonNull(message.getProperties().getResponseTopic())) {
-                callerObject.addNativeData(MqttConstants.RESPONSE_TOPIC.getValue(),
-                        message.getProperties().getResponseTopic());
+        inflightMessages.release();
+        if (autoComplete) {
+            complete(pendingMessage);
+        }
+    }
+
+    /**
+     * Lets go of a message that a detached service was yet to handle. Once no other service is left to handle it, the
+     * message is acknowledged, as a message that nothing handles is.
+     */
+    private void discard(PendingMessage pendingMessage) {
+        if (!pendingMessage.release()) {
+            return;
+        }
+        inflightMessages.release();
+        complete(pendingMessage);
+    }
+
+    /**
+     * Hands the message to {@code onMessage} of the service and returns {@code false} when the attempt failed and
+     * should be retried according to the retry policy. Once the attempts run out, the last error is reported and the
+     * message is dead lettered and completed.
+     */
+    private boolean deliver(AttachedService attachedService, PendingMessage pendingMessage, int attempt) {
+        BError error = invokeOnMessage(attachedService, pendingMessage);
+        if (Objects.nonNull(error) && retryPolicy.shouldRetry(attempt)) {
+            return false;
+        }
+        if (Objects.nonNull(error)) {
+            invokeOnError(attachedService, error);
+            deadLetter(attachedService, pendingMessage);
+            // The message is no longer left to the service, so it is completed even with manual acknowledgements
+            if (!autoComplete) {
+                complete(pendingMessage);
+            }
+        }
+        release(pendingMessage);
+        return true;
+    }
+
+    /**
+     * Calls {@code onMessage} of the service and returns the error it failed with, if any.
+     */
+    private BError invokeOnMessage(AttachedService attachedService, PendingMessage pendingMessage) {
+        BObject service = attachedService.getService();
+        DispatchPlan dispatchPlan = attachedService.getDispatchPlan();
+        if (!dispatchPlan.hasOnMessage()) {
+            invokeOnError(attachedService,
+                    MqttUtils.createMqttError(new NoSuchMethodException("method onMessage not found")));
+            return null;
+        }
+        // The properties are only left out when the service can read them later through its caller
+        boolean includeProperties = !lazyProperties || !dispatchPlan.hasCallerParameter();
+        Object bMqttMessage;
+        try {
+            bMqttMessage = dispatchPlan.getMessageBinder().bind(pendingMessage.getMessage(), pendingMessage.getTopic(),
+                    includeProperties);
+        } catch (RuntimeException e) {
+            BError bError = e instanceof BError error ? error : MqttUtils.createMqttError(e);
+            // Binding fails the same way on every attempt, so the message is dead lettered without retrying. It is
+            // completed even with manual acknowledgements, since the service never gets to complete it
+            invokeOnError(attachedService, bError);
+            deadLetter(attachedService, pendingMessage);
+            if (!autoComplete) {
+                complete(pendingMessage);
             }
-            if (Objects.nonNull(message.getProperties().getCorrelationData())) {
-                callerObject.addNativeData(MqttConstants.CORRELATION_DATA,
-                        message.getProperties().getCorrelationData());
+            return null;
+        }
+        try {
+            Object result;
+            if (dispatchPlan.hasCallerParameter()) {
+                BObject callerObject = ValueCreator.createObjectValue(getModule(), MqttConstants.CALLER);
+                callerObject.addNativeData(MqttConstants.CALLER_CONTEXT,
+                        CallerContext.forMessage(subscriber, service, acknowledger, pendingMessage));
+                result = runtime.callMethod(service, MqttConstants.ONMESSAGE, null, bMqttMessage, callerObject);
+            } else {
+                result = runtime.callMethod(service, MqttConstants.ONMESSAGE, null, bMqttMessage);
             }
-            try {
-                Object result = runtime.callMethod(service, MqttConstants.ONMESSAGE, null, bMqttMessage, callerObject);
-                if (result instanceof BError error) {
-                    error.printStackTrace();
-                }
-            } catch (BError bError) {
-                bError.printStackTrace();
+            return result instanceof BError error ? error : null;
+        } catch (BError bError) {
+            return bError;
+        } catch (RuntimeException e) {
+            return MqttUtils.createMqttError(e);
+        }
+    }
+
+    /**
+     * Publishes a message that could not be handled to the dead letter topic, if there is one, with the topic it was
+     * received on as a user property.
+     */
+    private void deadLetter(AttachedService attachedService, PendingMessage pendingMessage) {
+        String deadLetterTopic = retryPolicy.getDeadLetterTopic();
+        if (Objects.isNull(deadLetterTopic)) {
+            return;
+        }
+        MqttMessage message = pendingMessage.getMessage();
+        MqttProperties properties = new MqttProperties();
+        List<UserProperty> userProperties = new ArrayList<>();
+        if (Objects.nonNull(message.getProperties())) {
+            properties.setResponseTopic(message.getProperties().getResponseTopic());
+            properties.setCorrelationData(message.getProperties().getCorrelationData());
+            if (Objects.nonNull(message.getProperties().getUserProperties())) {
+                userProperties.addAll(message.getProperties().getUserProperties());
             }
-        } else {
-            try {
-                Object result = runtime.callMethod(service, MqttConstants.ONMESSAGE, null, bMqttMessage);
-                if (result instanceof BError error) {
-                    error.printStackTrace();
+        }
+        userProperties.add(new UserProperty(MqttConstants.ORIGINAL_TOPIC, pendingMessage.getTopic()));
+        properties.setUserProperties(userProperties);
+        try {
+            subscriber.publish(deadLetterTopic, new MqttMessage(message.getPayload(), message.getQos(), false,
+                    properties), DEAD_LETTER_CONTEXT, null);
+            retryPolicy.recordDeadLetter();
+        } catch (MqttException e) {
+            invokeOnError(attachedService, MqttUtils.createMqttError(e));
+        }
+    }
+
+    /**
+     * Calls {@code onMessages} of the service with a batch of messages. The messages are released whatever the outcome,
+     * and an error is reported to {@code onError} of the service.
+     */
+    private void invokeOnMessages(AttachedService attachedService, List<PendingMessage> pendingMessages) {
+        BObject service = attachedService.getService();
+        try {
+            BArray bMqttMessages = null;
+            for (PendingMessage pendingMessage : pendingMessages) {
+                // The caller of a batch cannot return the properties of each message, so they are never left out
+                BMap<BString, Object> bMqttMessage = getBMqttMessage(pendingMessage.getMessage(),
+                        pendingMessage.getTopic(), true);
+                if (Objects.isNull(bMqttMessages)) {
+                    bMqttMessages = ValueCreator.createArrayValue(TypeCreator.createArrayType(
+                            bMqttMessage.getType()));
                 }
-            } catch (BError bError) {
-                bError.printStackTrace();
+                bMqttMessages.append(bMqttMessage);
+            }
+            Object result;
+            if (attachedService.getDispatchPlan().hasCallerParameter()) {
+                BObject callerObject = ValueCreator.createObjectValue(getModule(), MqttConstants.CALLER);
+                callerObject.addNativeData(MqttConstants.CALLER_CONTEXT,
+                        CallerContext.forBatch(subscriber, service, acknowledger, pendingMessages));
+                result = runtime.callMethod(service, MqttConstants.ONMESSAGES, null, bMqttMessages, callerObject);
+            } else {
+                result = runtime.callMethod(service, MqttConstants.ONMESSAGES, null, bMqttMessages);
             }
+            if (result instanceof BError error) {
+                invokeOnError(attachedService, error);
+            }
+        } catch (RuntimeException e) {
+            invokeOnError(attachedService, e instanceof BError error ? error : MqttUtils.createMqttError(e));
+        } finally {
+            for (PendingMessage pendingMessage : pendingMessages) {
+                release(pendingMessage);
+            }
+        }
+    }
+
+    private void complete(PendingMessage pendingMessage) {
+        BError error = acknowledger.complete(pendingMessage);
+        if (Objects.nonNull(error)) {
+            invokeOnError(error);
         }
     }
 
     private void invokeOnError(BError bError) {
-        if (!isMethodImplemented(MqttConstants.ONERROR)) {
+        boolean handled = false;
+        for (AttachedService attachedService : serviceRouter.getServices()) {
+            if (attachedService.getDispatchPlan().hasOnError()) {
+                invokeOnError(attachedService, bError);
+                handled = true;
+            }
+        }
+        if (!handled) {
+            bError.printStackTrace();
+        }
+    }
+
+    private void invokeOnError(AttachedService attachedService, BError bError) {
+        if (!attachedService.getDispatchPlan().hasOnError()) {
             bError.printStackTrace();
             return;
         }
         try {
-            Object result = runtime.callMethod(service, MqttConstants.ONERROR, null, bError);
+            Object result = runtime.callMethod(attachedService.getService(), MqttConstants.ONERROR, null, bError);
             if (result instanceof BError error) {
                 error.printStackTrace();
             }
@@ -143,14 +399,15 @@ public class MqttListenerCallbackImpl implements MqttCallback {
         }
     }
 
-    private void invokeOnComplete(IMqttToken token) {
-        if (!isMethodImplemented(MqttConstants.ONCOMPLETE)) {
+    private void invokeOnComplete(AttachedService attachedService, IMqttToken token) {
+        if (!attachedService.getDispatchPlan().hasOnComplete()) {
             return;
         }
         BMap<BString, Object> bMqttToken;
         bMqttToken = getMqttDeliveryToken(token);
         try {
-            Object result = runtime.callMethod(service, MqttConstants.ONCOMPLETE, null, bMqttToken);
+            Object result = runtime.callMethod(attachedService.getService(), MqttConstants.ONCOMPLETE, null,
+                    bMqttToken);
             if (result instanceof BError error) {
                 error.printStackTrace();
             }
@@ -158,24 +415,4 @@ public class MqttListenerCallbackImpl implements MqttCallback {
             bError.printStackTrace();
         }
     }
-
-    private boolean isMethodImplemented(String methodName) {
-        Optional<RemoteMethodType> methodType = getRemoteMethodType(methodName);
-        return methodType.isPresent();
-    }
-
-    private boolean isCallerAvailable() {
-        Optional<RemoteMethodType> onMessageMethodType = getRemoteMethodType(MqttConstants.ONMESSAGE);
-        return onMessageMethodType.isPresent() && onMessageMethodType.get().getType().getParameters().length == 2;
-    }
-
-    private Optional<RemoteMethodType> getRemoteMethodType(String methodName) {
-        RemoteMethodType[] methodTypes = ((ServiceType) service.getOriginalType()).getRemoteMethods();
-        for (RemoteMethodType methodType: methodTypes) {
-            if (methodType.getName().equals(methodName)) {
-                return Optional.of(methodType);
-            }
-        }
-        return Optional.empty();
-    }
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.listener;
+
+import io.ballerina.runtime.api.values.BError;
+import io.ballerina.stdlib.mqtt.utils.MqttExecutor;
+import io.ballerina.stdlib.mqtt.utils.MqttUtils;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.ORDERING_GLOBAL;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.ORDERING_NONE;
+
+/**
+ * Runs the handlers of the received messages on the shared executor instead of the callback thread of the client,
+ * with at most {@code concurrency} of them running at once. With {@code PER_TOPIC} ordering every topic that has
+ * messages waiting gets a lane of its own, which runs its messages one at a time in the order they were received, so
+ * that a slow handler only holds back the messages of its own topic. {@code GLOBAL} ordering, and a concurrency of 1,
+ * use a single lane. With {@code NONE} every message runs on its own.
+ * <p>
+ * A handler that asks to be retried is run again once its delay elapses on the scheduler of the shared executor. Its
+ * lane stays scheduled until then, so the handlers queued after it wait for it without holding a worker.
+ */
+final class OrderedDispatcher {
+
+    private static final String GLOBAL_LANE = "";
+    // A lane gives up its worker after this many messages, so that a busy topic does not hold back the others
+    private static final int HANDLERS_PER_TURN = 64;
+
+    private final String ordering;
+    private final int concurrency;
+    private final Consumer<BError> errorHandler;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final Queue<Runnable> readyWork = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger workers = new AtomicInteger();
+
+    OrderedDispatcher(int concurrency, String ordering, Consumer<BError> errorHandler) {
+        this.ordering = concurrency == 1 && !ORDERING_NONE.equals(ordering) ? ORDERING_GLOBAL : ordering;
+        this.concurrency = concurrency;
+        this.errorHandler = errorHandler;
+    }
+
+    void dispatch(String topic, Handler handler) {
+        if (ORDERING_NONE.equals(ordering)) {
+            schedule(() -> runUnordered(handler));
+            return;
+        }
+        String key = ORDERING_GLOBAL.equals(ordering) ? GLOBAL_LANE : topic;
+        Lane lane = lanes.compute(key, (laneKey, existing) -> {
+            Lane current = Objects.isNull(existing) ? new Lane(laneKey) : existing;
+            current.handlers.add(handler);
+            return current;
+        });
+        if (lane.scheduled.compareAndSet(false, true)) {
+            schedule(lane::drain);
+        }
+    }
+
+    private void schedule(Runnable work) {
+        readyWork.add(work);
+        startWorker();
+    }
+
+    private void startWorker() {
+        while (!readyWork.isEmpty()) {
+            int current = workers.get();
+            if (current >= concurrency) {
+                return;
+            }
+            if (workers.compareAndSet(current, current + 1)) {
+                MqttExecutor.execute(this::work);
+                return;
+            }
+        }
+    }
+
+    private void work() {
+        try {
+            Runnable work;
+            while ((work = readyWork.poll()) != null) {
+                run(work);
+            }
+        } finally {
+            workers.decrementAndGet();
+        }
+        // Work that was added after the queue was found empty may have seen all the workers busy
+        startWorker();
+    }
+
+    private void run(Runnable work) {
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            errorHandler.accept(MqttUtils.createMqttError(e));
+        }
+    }
+
+    private Retry handle(Handler handler) {
+        try {
+            return handler.handle();
+        } catch (RuntimeException e) {
+            errorHandler.accept(MqttUtils.createMqttError(e));
+            return null;
+        }
+    }
+
+    private void runUnordered(Handler handler) {
+        Retry retry = handle(handler);
+        if (Objects.nonNull(retry)) {
+            MqttExecutor.schedule(() -> schedule(() -> runUnordered(retry.handler())), retry.delayNanos());
+        }
+    }
+
+    /**
+     * Handles a received message and returns the retry to run after a delay if it is not done with it, or else
+     * {@code null}.
+     */
+    @FunctionalInterface
+    interface Handler {
+
+        Retry handle();
+    }
+
+    /**
+     * A handler to run again once the delay elapses, in the place of the one that asked for it.
+     */
+    record Retry(Handler handler, long delayNanos) {
+    }
+
+    /**
+     * A serial queue of the handlers of a topic, which is only kept while it has handlers waiting.
+     */
+    private final class Lane {
+
+        private final String key;
+        private final Deque<Handler> handlers = new ConcurrentLinkedDeque<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Lane(String key) {
+            this.key = key;
+        }
+
+        private void drain() {
+            Handler handler;
+            for (int i = 0; i < HANDLERS_PER_TURN && (handler = handlers.poll()) != null; i++) {
+                Retry retry = handle(handler);
+                if (Objects.nonNull(retry)) {
+                    // The lane is left scheduled, so nothing else of it runs until the retry is put back in front
+                    MqttExecutor.schedule(() -> {
+                        handlers.addFirst(retry.handler());
+                        schedule(this::drain);
+                    }, retry.delayNanos());
+                    return;
+                }
+            }
+            if (!handlers.isEmpty()) {
+                readyWork.add(this::drain);
+                return;
+            }
+            scheduled.set(false);
+            if (!handlers.isEmpty() && scheduled.compareAndSet(false, true)) {
+                readyWork.add(this::drain);
+                return;
+            }
+            // A handler is only added to a lane while it is in the map, so an idle lane can be dropped safely
+            lanes.computeIfPresent(key, (laneKey, lane) ->
+                    lane == this && handlers.isEmpty() && !scheduled.get() ? null : lane);
+        }
+    }
+}
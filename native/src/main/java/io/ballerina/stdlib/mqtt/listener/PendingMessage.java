@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.listener;
+
+import org.eclipse.paho.mqttv5.common.MqttMessage;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A received message along with the number of services that are yet to handle it. The message is acknowledged once
+ * the last of them is done, which for a service with {@code onMessages} is when its batch is handled.
+ */
+public final class PendingMessage {
+
+    private final MqttMessage message;
+    private final String topic;
+    private final long arrivalNanos;
+    private final AtomicInteger pendingServices;
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    PendingMessage(MqttMessage message, String topic, int services) {
+        this.message = message;
+        this.topic = topic;
+        this.arrivalNanos = System.nanoTime();
+        this.pendingServices = new AtomicInteger(services);
+    }
+
+    public MqttMessage getMessage() {
+        return message;
+    }
+
+    long getArrivalNanos() {
+        return arrivalNanos;
+    }
+
+    String getTopic() {
+        return topic;
+    }
+
+    /**
+     * Marks the message as handled by one of its services and returns whether it was the last one.
+     */
+    boolean release() {
+        return pendingServices.decrementAndGet() == 0;
+    }
+
+    /**
+     * Marks the message as completed and returns whether it was not completed before, so that a message completed by
+     * both a service and the listener is only acknowledged once.
+     */
+    boolean markCompleted() {
+        return completed.compareAndSet(false, true);
+    }
+}
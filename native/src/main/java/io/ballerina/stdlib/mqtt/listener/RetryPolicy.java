@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.listener;
+
+import io.ballerina.runtime.api.values.BDecimal;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BString;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.BACKOFF_FACTOR;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.DEAD_LETTERED_MESSAGES;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.DEAD_LETTER_TOPIC;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.MAX_ATTEMPTS;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.MAX_INTERVAL;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RETRIED_MESSAGES;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RETRY_INTERVAL;
+
+/**
+ * How a listener retries a message that {@code onMessage} fails to handle. A failed attempt is retried after an
+ * exponentially growing interval until the maximum number of attempts is reached. The interval is waited out on
+ * the scheduler of the shared executor, and the message keeps its place in the order of the messages meanwhile. The
+ * message is then published to the dead letter topic when there is one.
+ */
+final class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long intervalNanos;
+    private final double backoffFactor;
+    private final long maxIntervalNanos;
+    private final String deadLetterTopic;
+    private final LongAdder retriedMessages = new LongAdder();
+    private final LongAdder deadLetteredMessages = new LongAdder();
+
+    private RetryPolicy(int maxAttempts, long intervalNanos, double backoffFactor, long maxIntervalNanos,
+                        String deadLetterTopic) {
+        this.maxAttempts = maxAttempts;
+        this.intervalNanos = intervalNanos;
+        this.backoffFactor = backoffFactor;
+        this.maxIntervalNanos = maxIntervalNanos;
+        this.deadLetterTopic = deadLetterTopic;
+    }
+
+    /**
+     * Creates the policy of the given retry configuration, or a policy that makes a single attempt when there is none.
+     *
+     * @throws IllegalArgumentException if the configuration is invalid
+     */
+    static RetryPolicy of(BMap retryConfiguration) {
+        if (Objects.isNull(retryConfiguration)) {
+            return new RetryPolicy(1, 0, 1, 0, null);
+        }
+        long maxAttempts = retryConfiguration.getIntValue(MAX_ATTEMPTS);
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Maximum attempts of a retry should be positive");
+        }
+        double interval = ((BDecimal) retryConfiguration.get(RETRY_INTERVAL)).floatValue();
+        double backoffFactor = ((BDecimal) retryConfiguration.get(BACKOFF_FACTOR)).floatValue();
+        double maxInterval = ((BDecimal) retryConfiguration.get(MAX_INTERVAL)).floatValue();
+        if (interval < 0 || maxInterval < 0) {
+            throw new IllegalArgumentException("Retry intervals should not be negative");
+        }
+        if (backoffFactor < 1) {
+            throw new IllegalArgumentException("Backoff factor of a retry should not be less than 1");
+        }
+        BString deadLetterTopic = (BString) retryConfiguration.get(DEAD_LETTER_TOPIC);
+        return new RetryPolicy((int) maxAttempts, (long) (interval * 1_000_000_000), backoffFactor,
+                (long) (maxInterval * 1_000_000_000), Objects.isNull(deadLetterTopic) ? null :
+                deadLetterTopic.getValue());
+    }
+
+    /**
+     * Returns whether a message is retried after failing the given attempt, counting from 1.
+     */
+    boolean shouldRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    /**
+     * Returns the time to wait before retrying a message that failed the given attempt.
+     */
+    long getDelayNanos(int attempt) {
+        double delay = intervalNanos * Math.pow(backoffFactor, attempt - 1);
+        return (long) Math.min(delay, maxIntervalNanos);
+    }
+
+    String getDeadLetterTopic() {
+        return deadLetterTopic;
+    }
+
+    void recordRetry() {
+        retriedMessages.increment();
+    }
+
+    void recordDeadLetter() {
+        deadLetteredMessages.increment();
+    }
+
+    void addMetrics(BMap<BString, Object> metrics) {
+        metrics.put(RETRIED_MESSAGES, retriedMessages.sum());
+        metrics.put(DEAD_LETTERED_MESSAGES, deadLetteredMessages.sum());
+    }
+}
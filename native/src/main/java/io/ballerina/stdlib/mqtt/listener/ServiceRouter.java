@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.listener;
+
+import io.ballerina.runtime.api.values.BObject;
+import io.ballerina.stdlib.mqtt.utils.TopicTrie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Routes the messages received by a listener to the services attached to it. A service attached with topic filters
+ * receives the messages matching any of its filters, while the services attached without filters receive the
+ * messages that no filter matches.
+ */
+final class ServiceRouter {
+
+    private final TopicTrie<AttachedService> filteredServices = new TopicTrie<>();
+    // An immutable snapshot that is replaced on attach and detach, so that a routed message keeps the services it was
+    // counted for even if the attached services change before it is handled
+    private volatile List<AttachedService> unfilteredServices = List.of();
+    private final List<AttachedService> services = new CopyOnWriteArrayList<>();
+    private final int maxBatchMessages;
+    private final long batchLingerNanos;
+    private final BiConsumer<AttachedService, List<PendingMessage>> batchHandler;
+    private final Consumer<PendingMessage> discardHandler;
+
+    ServiceRouter(int maxBatchMessages, long batchLingerNanos,
+                  BiConsumer<AttachedService, List<PendingMessage>> batchHandler,
+                  Consumer<PendingMessage> discardHandler) {
+        this.maxBatchMessages = maxBatchMessages;
+        this.batchLingerNanos = batchLingerNanos;
+        this.batchHandler = batchHandler;
+        this.discardHandler = discardHandler;
+    }
+
+    synchronized void attach(BObject service, List<String> topicFilters) {
+        DispatchPlan dispatchPlan = DispatchPlan.of(service);
+        AttachedService attachedService = new AttachedService(service, dispatchPlan, topicFilters);
+        if (dispatchPlan.hasOnMessages()) {
+            attachedService.batcher = new MessageBatcher(maxBatchMessages, batchLingerNanos,
+                    messages -> batchHandler.accept(attachedService, messages), discardHandler);
+        }
+        if (topicFilters.isEmpty()) {
+            List<AttachedService> services = new ArrayList<>(unfilteredServices);
+            services.add(attachedService);
+            unfilteredServices = List.copyOf(services);
+        } else {
+            for (String topicFilter : topicFilters) {
+                filteredServices.add(topicFilter, attachedService);
+            }
+        }
+        services.add(attachedService);
+    }
+
+    /**
+     * Detaches the given service and returns whether any service is still attached. The messages gathered for a
+     * service with {@code onMessages} are discarded, so that it receives no batch once detached.
+     */
+    synchronized boolean detach(BObject service) {
+        AttachedService attachedService = find(service);
+        if (Objects.nonNull(attachedService)) {
+            for (String topicFilter : attachedService.topicFilters) {
+                filteredServices.remove(topicFilter, attachedService);
+            }
+            if (unfilteredServices.contains(attachedService)) {
+                List<AttachedService> services = new ArrayList<>(unfilteredServices);
+                services.remove(attachedService);
+                unfilteredServices = List.copyOf(services);
+            }
+            services.remove(attachedService);
+            if (Objects.nonNull(attachedService.batcher)) {
+                attachedService.batcher.close();
+            }
+        }
+        return !services.isEmpty();
+    }
+
+    /**
+     * Returns the services that handle a message received on the given topic. The returned list is not changed by a
+     * later attach or detach, so the message is handed to exactly the services it is counted for.
+     */
+    List<AttachedService> route(String topic) {
+        List<AttachedService> matches = filteredServices.match(topic);
+        if (matches.isEmpty()) {
+            return unfilteredServices;
+        }
+        if (matches.size() == 1) {
+            return matches;
+        }
+        // A service whose filters overlap is matched once per filter but handles the message once
+        List<AttachedService> routed = new ArrayList<>(matches.size());
+        for (AttachedService match : matches) {
+            if (!routed.contains(match)) {
+                routed.add(match);
+            }
+        }
+        return routed;
+    }
+
+    AttachedService find(BObject service) {
+        for (AttachedService attachedService : services) {
+            if (attachedService.service == service) {
+                return attachedService;
+            }
+        }
+        return null;
+    }
+
+    List<AttachedService> getServices() {
+        return services;
+    }
+
+    /**
+     * A service attached to the listener along with its dispatch plan and topic filters, and the batcher of its
+     * messages if it handles them in batches.
+     */
+    static final class AttachedService {
+
+        private final BObject service;
+        private final DispatchPlan dispatchPlan;
+        private final List<String> topicFilters;
+        private MessageBatcher batcher;
+
+        private AttachedService(BObject service, DispatchPlan dispatchPlan, List<String> topicFilters) {
+            this.service = service;
+            this.dispatchPlan = dispatchPlan;
+            this.topicFilters = topicFilters;
+        }
+
+        BObject getService() {
+            return service;
+        }
+
+        DispatchPlan getDispatchPlan() {
+            return dispatchPlan;
+        }
+
+        MessageBatcher getBatcher() {
+            return batcher;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.utils;
+
+import io.ballerina.runtime.api.Environment;
+import org.eclipse.paho.mqttv5.client.IMqttToken;
+import org.eclipse.paho.mqttv5.client.MqttActionListener;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Completes an asynchronous action of the MQTT client, such as a connect, subscribe or disconnect, into a future. The
+ * strand that started the action yields while waiting for it instead of blocking a thread on the token.
+ */
+public final class ActionCompletionListener implements MqttActionListener {
+
+    private final CompletableFuture<Object> completion = new CompletableFuture<>();
+
+    @Override
+    public void onSuccess(IMqttToken asyncActionToken) {
+        completion.complete(null);
+    }
+
+    @Override
+    public void onFailure(IMqttToken asyncActionToken, Throwable exception) {
+        Exception cause = exception instanceof Exception e ? e : new Exception(exception);
+        completion.complete(MqttUtils.createMqttError(cause));
+    }
+
+    /**
+     * Yields the current strand until the action completes.
+     *
+     * @return {@code null} if the action succeeded or else an {@code Error}
+     */
+    public Object await(Environment env) {
+        return env.yieldAndRun(() -> MqttUtils.getResult(completion));
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.utils;
+
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.types.ArrayType;
+import io.ballerina.runtime.api.types.Field;
+import io.ballerina.runtime.api.types.RecordType;
+import io.ballerina.runtime.api.types.Type;
+import io.ballerina.runtime.api.types.TypeTags;
+import io.ballerina.runtime.api.utils.JsonUtils;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.utils.TypeUtils;
+import io.ballerina.runtime.api.utils.ValueUtils;
+import io.ballerina.runtime.api.utils.XmlUtils;
+import io.ballerina.runtime.api.values.BError;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BString;
+import org.eclipse.paho.mqttv5.common.MqttMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.ballerina.stdlib.mqtt.utils.ModuleUtils.getModule;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.CONTENT;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RECORD_MESSAGE;
+
+/**
+ * Binds a received message to the type a service or a stream asks for. The target can be an {@code mqtt:Message}, a
+ * record that includes {@code mqtt:Message} along with a typed {@code content} field, or any other {@code anydata}
+ * type that the payload itself is bound to. Binders are built once per type and cached, so the type is only
+ * inspected when a service is attached or a stream is opened.
+ */
+public final class MessageBinder {
+
+    private static final Map<Type, MessageBinder> BINDERS = new ConcurrentHashMap<>();
+
+    private final Type targetType;
+    private final Kind kind;
+    private final PayloadKind payloadKind;
+    private final Type payloadType;
+
+    private enum Kind {
+        MESSAGE,
+        MESSAGE_WITH_CONTENT,
+        PAYLOAD
+    }
+
+    private enum PayloadKind {
+        BYTES,
+        STRING,
+        XML,
+        JSON
+    }
+
+    private MessageBinder(Type targetType) {
+        Type impliedType = TypeUtils.getImpliedType(targetType);
+        this.targetType = impliedType;
+        if (isMessage(impliedType)) {
+            this.kind = Kind.MESSAGE;
+            this.payloadType = null;
+        } else if (impliedType instanceof RecordType recordType && Objects.nonNull(getContentField(recordType))) {
+            this.kind = Kind.MESSAGE_WITH_CONTENT;
+            this.payloadType = TypeUtils.getImpliedType(getContentField(recordType).getFieldType());
+        } else {
+            this.kind = Kind.PAYLOAD;
+            this.payloadType = impliedType;
+        }
+        this.payloadKind = Objects.isNull(payloadType) ? null : getPayloadKind(payloadType);
+    }
+
+    /**
+     * Returns the binder of the given type, building it on the first request for the type.
+     */
+    public static MessageBinder of(Type targetType) {
+        return BINDERS.computeIfAbsent(targetType, MessageBinder::new);
+    }
+
+    /**
+     * Binds the given message to the target type.
+     *
+     * @throws BError if the payload cannot be converted to the target type
+     */
+    public Object bind(MqttMessage message, String topic, boolean includeProperties) {
+        return switch (kind) {
+            case MESSAGE -> MqttUtils.getBMqttMessage(message, topic, includeProperties);
+            case MESSAGE_WITH_CONTENT -> bindWithContent(message, topic, includeProperties);
+            case PAYLOAD -> bindPayload(message.getPayload());
+        };
+    }
+
+    private BMap<BString, Object> bindWithContent(MqttMessage message, String topic, boolean includeProperties) {
+        RecordType recordType = (RecordType) targetType;
+        BMap<BString, Object> bMessage = ValueCreator.createRecordValue(recordType.getPackage(), recordType.getName());
+        MqttUtils.populateBMqttMessage(bMessage, message, topic, includeProperties);
+        bMessage.put(CONTENT, bindPayload(message.getPayload()));
+        return bMessage;
+    }
+
+    private Object bindPayload(byte[] payload) {
+        try {
+            return switch (payloadKind) {
+                case BYTES -> ValueCreator.createArrayValue(payload);
+                case STRING -> StringUtils.fromString(new String(payload, StandardCharsets.UTF_8));
+                case XML -> XmlUtils.parse(new String(payload, StandardCharsets.UTF_8));
+                case JSON -> ValueUtils.convert(JsonUtils.parse(new String(payload, StandardCharsets.UTF_8)),
+                        payloadType);
+            };
+        } catch (BError e) {
+            throw MqttUtils.createMqttError(new Exception("Failed to bind the payload to '" + payloadType + "': " +
+                    e.getMessage()));
+        }
+    }
+
+    private static boolean isMessage(Type type) {
+        return RECORD_MESSAGE.equals(type.getName()) && Objects.equals(type.getPackage(), getModule());
+    }
+
+    private static Field getContentField(RecordType recordType) {
+        Map<String, Field> fields = recordType.getFields();
+        if (!fields.containsKey(MqttConstants.PAYLOAD.getValue())) {
+            return null;
+        }
+        return fields.get(CONTENT.getValue());
+    }
+
+    private static PayloadKind getPayloadKind(Type payloadType) {
+        if (payloadType instanceof ArrayType arrayType &&
+                TypeUtils.getImpliedType(arrayType.getElementType()).getTag() == TypeTags.BYTE_TAG) {
+            return PayloadKind.BYTES;
+        }
+        return switch (payloadType.getTag()) {
+            case TypeTags.STRING_TAG -> PayloadKind.STRING;
+            case TypeTags.XML_TAG -> PayloadKind.XML;
+            default -> PayloadKind.JSON;
+        };
+    }
+}
@@ -37,11 +37,54 @@ public final class MqttConstants {
     public static final BString CLEAN_START = StringUtils.fromString("cleanStart");
     public static final BString SERVER_URIS = StringUtils.fromString("serverUris");
     public static final BString AUTOMATIC_RECONNECT = StringUtils.fromString("automaticReconnect");
+    public static final BString RECEIVE_MAXIMUM = StringUtils.fromString("receiveMaximum");
+    public static final BString INFLIGHT_CONFIGURATION = StringUtils.fromString("inflightConfig");
+    public static final BString MAX_INFLIGHT = StringUtils.fromString("maxInflight");
+    public static final BString BACKPRESSURE_POLICY = StringUtils.fromString("backpressurePolicy");
+    public static final BString MAX_QUEUED = StringUtils.fromString("maxQueued");
+    public static final BString RECEIVE_QUEUE_CONFIGURATION = StringUtils.fromString("receiveQueueConfig");
+    public static final BString CAPACITY = StringUtils.fromString("capacity");
+    public static final BString BATCH_CONFIGURATION = StringUtils.fromString("batchConfig");
+    public static final BString BATCH_MAX_MESSAGES = StringUtils.fromString("maxMessages");
+    public static final BString LINGER_TIME = StringUtils.fromString("lingerTime");
+    public static final BString RETRY_CONFIGURATION = StringUtils.fromString("retryConfig");
+    public static final BString MAX_ATTEMPTS = StringUtils.fromString("maxAttempts");
+    public static final BString RETRY_INTERVAL = StringUtils.fromString("interval");
+    public static final BString BACKOFF_FACTOR = StringUtils.fromString("backoffFactor");
+    public static final BString MAX_INTERVAL = StringUtils.fromString("maxInterval");
+    public static final BString DEAD_LETTER_TOPIC = StringUtils.fromString("deadLetterTopic");
+    public static final BString RETRIED_MESSAGES = StringUtils.fromString("retriedMessages");
+    public static final BString DEAD_LETTERED_MESSAGES = StringUtils.fromString("deadLetteredMessages");
+    public static final String RETRY_POLICY = "retryPolicy";
+    public static final String LISTENER_CALLBACK = "listenerCallback";
+    public static final BString DRAIN_TIMEOUT = StringUtils.fromString("drainTimeout");
+    public static final String DRAIN_TIMEOUT_NANOS = "drainTimeoutNanos";
+    public static final String ORIGINAL_TOPIC = "originalTopic";
+    public static final BString COMPLETED_ACKS = StringUtils.fromString("completedAcks");
+    public static final BString AVERAGE_ACK_LATENCY = StringUtils.fromString("averageAckLatency");
+    public static final BString MAX_ACK_LATENCY = StringUtils.fromString("maxAckLatency");
+    public static final String RECORD_LISTENER_METRICS = "ListenerMetrics";
+    public static final BString ACTIVE_TASKS = StringUtils.fromString("activeTasks");
+    public static final BString QUEUED_TASKS = StringUtils.fromString("queuedTasks");
+    public static final BString COMPLETED_TASKS = StringUtils.fromString("completedTasks");
+    public static final String RECORD_EXECUTOR_METRICS = "ExecutorMetrics";
+    public static final BString OVERFLOW_POLICY = StringUtils.fromString("overflowPolicy");
+    public static final BString WAIT_STRATEGY = StringUtils.fromString("waitStrategy");
+    public static final BString QUEUED_MESSAGES = StringUtils.fromString("queuedMessages");
+    public static final BString DROPPED_MESSAGES = StringUtils.fromString("droppedMessages");
     public static final BString SECURE_SOCKET = StringUtils.fromString("secureSocket");
     public static final BString CERT = StringUtils.fromString("cert");
     public static final BString KEY = StringUtils.fromString("key");
     public static final BString TOPIC = StringUtils.fromString("topic");
     public static final BString BQOS = StringUtils.fromString("qos");
+    public static final BString SHARED_GROUP = StringUtils.fromString("sharedGroup");
+    public static final String SHARED_SUBSCRIPTION_PREFIX = "$share/";
+    public static final BString PAYLOAD = StringUtils.fromString("payload");
+    public static final BString CONTENT = StringUtils.fromString("content");
+    public static final BString BMESSAGE_ID = StringUtils.fromString("messageId");
+    public static final BString BRETAINED = StringUtils.fromString("retained");
+    public static final BString BDUPLICATE = StringUtils.fromString("duplicate");
+    public static final BString BCORRELATION_DATA = StringUtils.fromString("correlationData");
     public static final BString CERT_FILE = StringUtils.fromString("certFile");
     public static final BString KEY_FILE = StringUtils.fromString("keyFile");
     public static final BString KEY_PASSWORD = StringUtils.fromString("keyPassword");
@@ -53,35 +96,56 @@ public final class MqttConstants {
     public static final String ERROR_NAME = "Error";
 
     public static final String MQTT_CLIENT = "mqttClient";
-    public static final String SUBSCRIBER = "subscriber";
-    public static final String MESSAGE_ID = "messageId";
-    public static final String QOS = "qos";
-    public static final String PAYLOAD = "payload";
-    public static final String RETAINED = "retained";
-    public static final String DUPLICATE = "duplicate";
     public static final String MANUAL_ACKS = "manualAcks";
-    public static final String SERVICE = "service";
+    public static final BString LAZY_PROPERTIES = StringUtils.fromString("lazyProperties");
+    public static final String CALLER_CONTEXT = "callerContext";
+    public static final String ACKNOWLEDGER = "acknowledger";
+    public static final BString CONCURRENCY = StringUtils.fromString("concurrency");
+    public static final BString MAX_INFLIGHT_MESSAGES = StringUtils.fromString("maxInflightMessages");
+    public static final BString ORDERING = StringUtils.fromString("ordering");
+    public static final String ORDERING_NONE = "NONE";
+    public static final String ORDERING_GLOBAL = "GLOBAL";
+    public static final String SERVICE_ROUTER = "serviceRouter";
+    public static final String SERVICE_CONFIG = "ServiceConfig";
+    public static final BString TOPIC_FILTERS = StringUtils.fromString("topicFilters");
     public static final String CALLER = "Caller";
     public static final String RECORD_MESSAGE = "Message";
     public static final String RECORD_MESSAGE_PROPERTIES = "MessageProperties";
     public static final String RECORD_DELIVERY_TOKEN = "DeliveryToken";
+    public static final String RECORD_CLIENT_METRICS = "ClientMetrics";
     public static final BString RESPONSE_TOPIC = StringUtils.fromString("responseTopic");
-    public static final String CORRELATION_DATA = "correlationData";
     public static final BString MESSAGE_PROPERTIES = StringUtils.fromString("properties");
     public static final BString REASON_CODE = StringUtils.fromString("reasonCode");
     public static final BString WILL_DETAILS = StringUtils.fromString("willDetails");
     public static final BString DESTINATION_TOPIC = StringUtils.fromString("destinationTopic");
     public static final BString WILL_MESSAGE = StringUtils.fromString("willMessage");
+    public static final BString MESSAGE = StringUtils.fromString("message");
     
     public static final String ONCOMPLETE = "onComplete";
     public static final String ONMESSAGE = "onMessage";
+    public static final String ONMESSAGES = "onMessages";
     public static final String ONERROR = "onError";
 
     public static final String RESPONSE_QUEUE = "responseQueue";
-    public static final String DELIVERY_TOKEN_QUEUE = "deliveryTokenQueue";
-    public static final String RESPONSE_EXECUTOR_SERVICE = "responseExecutorService";
-    public static final String CLIENT_EXECUTOR_SERVICES = "clientExecutorServices";
+    public static final String RECEIVE_ROUTER = "receiveRouter";
+    public static final String TOPIC_FILTER = "topicFilter";
+    public static final String MESSAGE_BINDER = "messageBinder";
     public static final String STREAM_ITERATOR = "StreamIterator";
+    public static final String BATCH_STREAM_ITERATOR = "BatchStreamIterator";
+    public static final String MAX_MESSAGES = "maxMessages";
+    public static final String MAX_WAIT = "maxWait";
+    public static final String PUBLISH_FUTURE = "PublishFuture";
+    public static final String DELIVERY_FUTURE = "deliveryFuture";
+    public static final String INFLIGHT_WINDOW = "inflightWindow";
+    public static final String BACKPRESSURE_BLOCK = "BLOCK";
+    public static final String BACKPRESSURE_FAIL = "FAIL";
+    public static final String BACKPRESSURE_QUEUE = "QUEUE";
+    public static final String OVERFLOW_BLOCK = "BLOCK";
+    public static final String OVERFLOW_DROP_OLDEST = "DROP_OLDEST";
+    public static final String OVERFLOW_DROP_NEWEST = "DROP_NEWEST";
+    public static final String OVERFLOW_FAIL = "FAIL";
+    public static final String WAIT_STRATEGY_SPIN = "SPIN";
+    public static final String WAIT_STRATEGY_PARK = "PARK";
     public static final String ERROR_DETAILS = "ErrorDetails";
 
     public static final BString CRYPTO_TRUSTSTORE_PATH = StringUtils.fromString("path");
@@ -91,4 +155,6 @@ public final class MqttConstants {
     public static final String NATIVE_DATA_PRIVATE_KEY = "NATIVE_DATA_PRIVATE_KEY";
     public static final String DEFAULT_TLS_PROTOCOL = "TLSv1.2";
 
+    public static final int TOPIC_CACHE_SIZE = 1024;
+
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.utils;
+
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BString;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.ballerina.stdlib.mqtt.utils.ModuleUtils.getModule;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.ACTIVE_TASKS;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.COMPLETED_TASKS;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.QUEUED_TASKS;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RECORD_EXECUTOR_METRICS;
+
+/**
+ * The executor shared by the native tasks that the module runs off the MQTT client threads.
+ * Tasks run on virtual threads by default, or on a bounded pool of platform threads when configured so.
+ */
+public final class MqttExecutor {
+
+    private static final String THREAD_NAME_PREFIX = "bal-mqtt-worker-";
+    private static final String SCHEDULER_THREAD_NAME = "bal-mqtt-scheduler";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private static final AtomicInteger queuedTasks = new AtomicInteger();
+    private static final AtomicInteger activeTasks = new AtomicInteger();
+    private static final AtomicLong completedTasks = new AtomicLong();
+    private static final AtomicBoolean shutdownHookRegistered = new AtomicBoolean();
+    private static volatile ExecutorService executorService = createExecutorService(true, 0);
+    private static final ScheduledThreadPoolExecutor scheduler = createScheduler();
+
+    private MqttExecutor() {
+    }
+
+    public static Object initExecutor(boolean useVirtualThreads, long maxThreads) {
+        if (!useVirtualThreads && maxThreads <= 0) {
+            return MqttUtils.createMqttError(new Exception("Maximum executor threads should be positive"));
+        }
+        ExecutorService previous = executorService;
+        executorService = createExecutorService(useVirtualThreads, (int) Math.min(maxThreads, Integer.MAX_VALUE));
+        previous.shutdown();
+        if (shutdownHookRegistered.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(MqttExecutor::shutdown));
+        }
+        return null;
+    }
+
+    /**
+     * Runs the given task on the executor.
+     *
+     * @throws RejectedExecutionException if the executor is shut down
+     */
+    public static void execute(Runnable task) {
+        queuedTasks.incrementAndGet();
+        try {
+            executorService.execute(() -> {
+                queuedTasks.decrementAndGet();
+                activeTasks.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    activeTasks.decrementAndGet();
+                    completedTasks.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queuedTasks.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the given task on the executor once the delay elapses. The scheduler thread only hands the task over, so
+     * a slow task does not hold back the others.
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, long delayNanos) {
+        return scheduler.schedule(() -> execute(task), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static BMap<BString, Object> getExecutorMetrics() {
+        BMap<BString, Object> metrics = ValueCreator.createRecordValue(getModule(), RECORD_EXECUTOR_METRICS);
+        metrics.put(ACTIVE_TASKS, (long) activeTasks.get());
+        metrics.put(QUEUED_TASKS, (long) queuedTasks.get());
+        metrics.put(COMPLETED_TASKS, completedTasks.get());
+        return metrics;
+    }
+
+    /**
+     * Stops accepting new tasks and waits for the running ones to finish, so that their work is not lost when the
+     * program exits.
+     */
+    static void shutdown() {
+        ExecutorService current = executorService;
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(1,
+                Thread.ofPlatform().name(SCHEDULER_THREAD_NAME).daemon(true).factory());
+        scheduledExecutor.setRemoveOnCancelPolicy(true);
+        return scheduledExecutor;
+    }
+
+    private static ExecutorService createExecutorService(boolean useVirtualThreads, int maxThreads) {
+        if (useVirtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(THREAD_NAME_PREFIX, 0).factory());
+        }
+        ThreadFactory threadFactory = Thread.ofPlatform().name(THREAD_NAME_PREFIX, 0).daemon(true).factory();
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+}
@@ -31,7 +31,9 @@ import org.eclipse.paho.mqttv5.client.IMqttToken;
 import org.eclipse.paho.mqttv5.client.MqttConnectionOptions;
 import org.eclipse.paho.mqttv5.common.MqttException;
 import org.eclipse.paho.mqttv5.common.MqttMessage;
+import org.eclipse.paho.mqttv5.common.MqttSubscription;
 import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
+import org.eclipse.paho.mqttv5.common.util.MqttTopicValidator;
 
 import java.io.FileInputStream;
 import java.nio.charset.StandardCharsets;
@@ -41,6 +43,10 @@ import java.security.Security;
 import java.security.cert.X509Certificate;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.net.SocketFactory;
 import javax.net.ssl.KeyManagerFactory;
@@ -54,7 +60,11 @@ import static io.ballerina.stdlib.mqtt.utils.MqttConstants.CERT_FILE;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.CLEAN_START;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.CONNECTION_CONFIGURATION;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.CONNECTION_TIMEOUT;
-import static io.ballerina.stdlib.mqtt.utils.MqttConstants.CORRELATION_DATA;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.BCORRELATION_DATA;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.BDUPLICATE;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.BMESSAGE_ID;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.BQOS;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.BRETAINED;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.CRYPTO_TRUSTSTORE_PASSWORD;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.CRYPTO_TRUSTSTORE_PATH;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.DEFAULT_TLS_PROTOCOL;
@@ -67,19 +77,25 @@ import static io.ballerina.stdlib.mqtt.utils.MqttConstants.KEY_PASSWORD;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.KEY_STORE_PASSWORD;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.KEY_STORE_PATH;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.MAX_RECONNECT_DELAY;
-import static io.ballerina.stdlib.mqtt.utils.MqttConstants.MESSAGE_ID;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.MESSAGE_PROPERTIES;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.NATIVE_DATA_PRIVATE_KEY;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.NATIVE_DATA_PUBLIC_KEY_CERTIFICATE;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.PAYLOAD;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.PASSWORD;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.PROTOCOL_NAME;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.PROTOCOL_VERSION;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.REASON_CODE;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RECEIVE_MAXIMUM;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RECORD_DELIVERY_TOKEN;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RECORD_MESSAGE;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RECORD_MESSAGE_PROPERTIES;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.RESPONSE_TOPIC;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.SECURE_SOCKET;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.SERVER_URIS;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.SHARED_GROUP;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.SHARED_SUBSCRIPTION_PREFIX;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.TOPIC;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.TOPIC_CACHE_SIZE;
 import static io.ballerina.stdlib.mqtt.utils.MqttConstants.USERNAME;
 
 /**
@@ -89,61 +105,103 @@ public final class MqttUtils {
 
     private MqttUtils() {}
 
+    private static final String TOPIC_LEVEL_SEPARATOR = "/";
+    private static final TopicCache TOPIC_CACHE = new TopicCache(TOPIC_CACHE_SIZE);
+
     public static BMap<BString, Object> getBMqttMessage(MqttMessage message, String topic) {
-        BMap<BString, Object> bMessage = ValueCreator.createRecordValue(ModuleUtils.getModule(),
-                MqttConstants.RECORD_MESSAGE);
-        bMessage.put(StringUtils.fromString(MqttConstants.PAYLOAD),
-                ValueCreator.createArrayValue(message.getPayload()));
-        bMessage.put(StringUtils.fromString(MqttConstants.MESSAGE_ID), message.getId());
-        bMessage.put(StringUtils.fromString(MqttConstants.QOS), message.getQos());
-        bMessage.put(StringUtils.fromString(MqttConstants.RETAINED), message.isRetained());
-        bMessage.put(StringUtils.fromString(MqttConstants.DUPLICATE), message.isDuplicate());
-        bMessage.put(MqttConstants.TOPIC, StringUtils.fromString(topic));
+        return getBMqttMessage(message, topic, true);
+    }
+
+    /**
+     * Converts a received message to an {@code mqtt:Message}. When {@code includeProperties} is {@code false} the
+     * MQTT 5 properties are left out, so that they are only converted if they are requested later through
+     * {@link #getBMessageProperties(MqttProperties)}.
+     */
+    public static BMap<BString, Object> getBMqttMessage(MqttMessage message, String topic,
+                                                        boolean includeProperties) {
+        BMap<BString, Object> bMessage = ValueCreator.createRecordValue(getModule(), RECORD_MESSAGE);
+        populateBMqttMessage(bMessage, message, topic, includeProperties);
+        return bMessage;
+    }
+
+    /**
+     * Sets the fields of an {@code mqtt:Message} on the given record, which may be a record that includes it.
+     */
+    public static void populateBMqttMessage(BMap<BString, Object> bMessage, MqttMessage message, String topic,
+                                            boolean includeProperties) {
+        bMessage.put(PAYLOAD, ValueCreator.createArrayValue(message.getPayload()));
+        bMessage.put(BMESSAGE_ID, (long) message.getId());
+        bMessage.put(BQOS, (long) message.getQos());
+        bMessage.put(BRETAINED, message.isRetained());
+        bMessage.put(BDUPLICATE, message.isDuplicate());
+        bMessage.put(TOPIC, getTopic(topic));
         MqttProperties properties = message.getProperties();
-        if (Objects.nonNull(properties)) {
-            BMap<BString, Object> bMessageProperties = ValueCreator.createRecordValue(ModuleUtils.getModule(),
-                    MqttConstants.RECORD_MESSAGE_PROPERTIES);
-            if (Objects.nonNull(properties.getResponseTopic())) {
-                bMessageProperties.put(RESPONSE_TOPIC,
-                        StringUtils.fromString(message.getProperties().getResponseTopic()));
-            }
-            if (Objects.nonNull(properties.getCorrelationData())) {
-                bMessageProperties.put(StringUtils.fromString(CORRELATION_DATA), ValueCreator.createArrayValue(
-                        message.getProperties().getCorrelationData()));
-            }
-            bMessage.put(MESSAGE_PROPERTIES, bMessageProperties);
+        if (includeProperties && Objects.nonNull(properties) && (Objects.nonNull(properties.getResponseTopic()) ||
+                Objects.nonNull(properties.getCorrelationData()))) {
+            bMessage.put(MESSAGE_PROPERTIES, getBMessageProperties(properties));
         }
-        return bMessage;
+    }
+
+    public static BMap<BString, Object> getBMessageProperties(MqttProperties properties) {
+        BMap<BString, Object> bMessageProperties = ValueCreator.createRecordValue(getModule(),
+                RECORD_MESSAGE_PROPERTIES);
+        if (Objects.isNull(properties)) {
+            return bMessageProperties;
+        }
+        String responseTopic = properties.getResponseTopic();
+        if (Objects.nonNull(responseTopic)) {
+            // Response topics are usually unique to a request, so they are not cached
+            bMessageProperties.put(RESPONSE_TOPIC, StringUtils.fromString(responseTopic));
+        }
+        byte[] correlationData = properties.getCorrelationData();
+        if (Objects.nonNull(correlationData)) {
+            bMessageProperties.put(BCORRELATION_DATA, ValueCreator.createArrayValue(correlationData));
+        }
+        return bMessageProperties;
     }
 
     public static MqttMessage generateMqttMessage(BMap message) {
         MqttProperties properties = new MqttProperties();
         BMap bMessageProperties = message.getMapValue(MESSAGE_PROPERTIES);
         if (Objects.nonNull(bMessageProperties)) {
-            if (bMessageProperties.containsKey(StringUtils.fromString(CORRELATION_DATA))) {
-                properties.setCorrelationData(bMessageProperties.getArrayValue(
-                        StringUtils.fromString(CORRELATION_DATA)).getByteArray());
+            Object correlationData = bMessageProperties.get(BCORRELATION_DATA);
+            if (Objects.nonNull(correlationData)) {
+                properties.setCorrelationData(((BArray) correlationData).getByteArray());
             }
-            if (bMessageProperties.containsKey(RESPONSE_TOPIC)) {
-                properties.setResponseTopic(bMessageProperties.getStringValue(RESPONSE_TOPIC).getValue());
+            Object responseTopic = bMessageProperties.get(RESPONSE_TOPIC);
+            if (Objects.nonNull(responseTopic)) {
+                properties.setResponseTopic(((BString) responseTopic).getValue());
             }
-
         }
         MqttMessage mqttMessage = new MqttMessage();
-        mqttMessage.setPayload(((BArray) message.get(StringUtils.fromString(MqttConstants.PAYLOAD))).getByteArray());
-        mqttMessage.setQos(((Long) message.get(StringUtils.fromString(MqttConstants.QOS))).intValue());
-        mqttMessage.setRetained(((boolean) message.get(StringUtils.fromString(MqttConstants.RETAINED))));
+        // getByteArray() hands out the backing array of the Ballerina byte[] without copying it
+        mqttMessage.setPayload(((BArray) message.get(PAYLOAD)).getByteArray());
+        mqttMessage.setQos(((Long) message.get(BQOS)).intValue());
+        mqttMessage.setRetained((boolean) message.get(BRETAINED));
         mqttMessage.setProperties(properties);
         return mqttMessage;
     }
 
     public static BMap<BString, Object> getMqttDeliveryToken(IMqttToken token) {
+        return getMqttDeliveryToken(token.getMessageId(), token.getTopics()[0]);
+    }
+
+    public static BMap<BString, Object> getMqttDeliveryToken(int messageId, String topic) {
         BMap<BString, Object> bDeliveryToken = ValueCreator.createRecordValue(getModule(), RECORD_DELIVERY_TOKEN);
-        bDeliveryToken.put(StringUtils.fromString(MESSAGE_ID), token.getMessageId());
-        bDeliveryToken.put(TOPIC, StringUtils.fromString(token.getTopics()[0]));
+        bDeliveryToken.put(BMESSAGE_ID, (long) messageId);
+        bDeliveryToken.put(TOPIC, getTopic(topic));
         return bDeliveryToken;
     }
 
+    /**
+     * Returns the Ballerina string of a topic, reusing the instance created for an earlier message on the same topic.
+     * About {@link MqttConstants#TOPIC_CACHE_SIZE} of the most recently used topics are kept, so that clients that see
+     * an unbounded number of topics do not grow the cache forever.
+     */
+    public static BString getTopic(String topic) {
+        return TOPIC_CACHE.get(topic);
+    }
+
     public static MqttConnectionOptions getMqttConnectOptions(BMap<BString, Object> configuration) {
         MqttConnectionOptions options = new MqttConnectionOptions();
         Object connectionConfigObject = configuration.get(CONNECTION_CONFIGURATION);
@@ -181,6 +239,10 @@ public final class MqttUtils {
             if (Objects.nonNull(automaticReconnect)) {
                 options.setAutomaticReconnect((boolean) automaticReconnect);
             }
+            Object receiveMaximum = connectionConfig.get(RECEIVE_MAXIMUM);
+            if (Objects.nonNull(receiveMaximum)) {
+                options.setReceiveMaximum(((Long) receiveMaximum).intValue());
+            }
             Object secureSocket = connectionConfig.get(SECURE_SOCKET);
             if (Objects.nonNull(secureSocket)) {
                 SocketFactory socketFactory = getSocketFactory((BMap<BString, Object>) secureSocket);
@@ -303,6 +365,80 @@ public final class MqttUtils {
         }
     }
 
+    public static Object getResult(CompletableFuture<Object> balFuture) {
+        try {
+            return balFuture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return createMqttError(e);
+        } catch (ExecutionException e) {
+            return createMqttError(e);
+        }
+    }
+
+    public static Object getResult(CompletableFuture<Object> balFuture, long timeoutInMillis) {
+        try {
+            return balFuture.get(timeoutInMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return createMqttError(e);
+        } catch (ExecutionException e) {
+            return createMqttError(e);
+        } catch (TimeoutException e) {
+            return createMqttError(new Exception("Timed out while waiting for the delivery to complete"));
+        }
+    }
+
+    /**
+     * Converts the given subscription records to MQTT subscriptions. A subscription with a shared group is sent as a
+     * {@code $share/<group>/<topic>} filter so that the server delivers each message to one subscriber of the group.
+     */
+    public static MqttSubscription[] getMqttSubscriptions(BArray subscriptions) {
+        MqttSubscription[] mqttSubscriptions = new MqttSubscription[subscriptions.size()];
+        for (int i = 0; i < subscriptions.size(); i++) {
+            BMap topicSubscription = (BMap) subscriptions.getValues()[i];
+            String topic = topicSubscription.getStringValue(TOPIC).getValue();
+            if (topicSubscription.containsKey(SHARED_GROUP)) {
+                if (topic.startsWith(SHARED_SUBSCRIPTION_PREFIX)) {
+                    throw new IllegalArgumentException("Topic " + topic + " with a shared group is already a " +
+                            "shared subscription");
+                }
+                String sharedGroup = topicSubscription.getStringValue(SHARED_GROUP).getValue();
+                validateSharedGroup(sharedGroup);
+                topic = SHARED_SUBSCRIPTION_PREFIX + sharedGroup + TOPIC_LEVEL_SEPARATOR + topic;
+            }
+            getMatchingTopicFilter(topic);
+            mqttSubscriptions[i] = new MqttSubscription(topic, topicSubscription.getIntValue(BQOS).intValue());
+        }
+        return mqttSubscriptions;
+    }
+
+    /**
+     * Validates the given topic filter and returns the filter that the topics of its messages match. The messages of
+     * a shared subscription carry their original topic, so the {@code $share/<group>/} prefix is left out.
+     */
+    public static String getMatchingTopicFilter(String topicFilter) {
+        String filter = topicFilter;
+        if (topicFilter.startsWith(SHARED_SUBSCRIPTION_PREFIX)) {
+            int groupEnd = topicFilter.indexOf(TOPIC_LEVEL_SEPARATOR, SHARED_SUBSCRIPTION_PREFIX.length());
+            if (groupEnd < 0) {
+                throw new IllegalArgumentException("Shared subscription " + topicFilter + " has no topic filter");
+            }
+            validateSharedGroup(topicFilter.substring(SHARED_SUBSCRIPTION_PREFIX.length(), groupEnd));
+            filter = topicFilter.substring(groupEnd + 1);
+        }
+        MqttTopicValidator.validate(filter, true, false);
+        return filter;
+    }
+
+    private static void validateSharedGroup(String sharedGroup) {
+        if (sharedGroup.isEmpty() || sharedGroup.contains(TOPIC_LEVEL_SEPARATOR) || sharedGroup.contains("+") ||
+                sharedGroup.contains("#")) {
+            throw new IllegalArgumentException("Invalid shared group name: '" + sharedGroup + "'. A shared group " +
+                    "name should not be empty or contain '/', '+' or '#'");
+        }
+    }
+
     public static BError createMqttError(Exception exception) {
         Throwable cause = exception.getCause();
         BMap<BString, Object> errorDetailMap = ValueCreator.createRecordValue(getModule(), ERROR_DETAILS);
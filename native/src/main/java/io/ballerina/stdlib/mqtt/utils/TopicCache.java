@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.utils;
+
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BString;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the Ballerina strings of the most recently used topics, so that the messages received on the same topic share
+ * a single instance. The cache is split into segments by the hash of the topic, each evicting its least recently used
+ * topic once it is full, so that topics that are no longer used do not hold the cache and concurrent lookups rarely
+ * contend for the same lock.
+ */
+final class TopicCache {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    TopicCache(int capacity) {
+        int segmentCapacity = Math.max(1, capacity / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    BString get(String topic) {
+        Segment segment = segments[(topic.hashCode() & Integer.MAX_VALUE) % SEGMENT_COUNT];
+        synchronized (segment) {
+            return segment.computeIfAbsent(topic, StringUtils::fromString);
+        }
+    }
+
+    private static final class Segment extends LinkedHashMap<String, BString> {
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BString> eldest) {
+            return size() > capacity;
+        }
+    }
+}
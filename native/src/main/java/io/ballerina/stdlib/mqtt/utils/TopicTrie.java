@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Matches topics against MQTT topic filters, including the {@code +} and {@code #} wildcards. Filters are added and
+ * removed rarely while topics are matched for every received message, so only adding and removing filters take a
+ * lock. The nodes that no longer lead to a filter are removed along with it.
+ *
+ * @param <T> the type of the values registered against the filters
+ */
+public final class TopicTrie<T> {
+
+    private static final String LEVEL_SEPARATOR = "/";
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+    private static final String SYSTEM_TOPIC_PREFIX = "$";
+
+    private final Node<T> root = new Node<>();
+
+    public synchronized void add(String topicFilter, T value) {
+        Node<T> node = root;
+        for (String level : topicFilter.split(LEVEL_SEPARATOR, -1)) {
+            node = node.children.computeIfAbsent(level, key -> new Node<>());
+        }
+        node.values.add(value);
+    }
+
+    public synchronized boolean remove(String topicFilter, T value) {
+        String[] levels = topicFilter.split(LEVEL_SEPARATOR, -1);
+        List<Node<T>> path = new ArrayList<>(levels.length + 1);
+        Node<T> node = root;
+        path.add(node);
+        for (String level : levels) {
+            node = node.children.get(level);
+            if (Objects.isNull(node)) {
+                return false;
+            }
+            path.add(node);
+        }
+        if (!node.values.remove(value)) {
+            return false;
+        }
+        for (int i = levels.length; i > 0 && path.get(i).isEmpty(); i--) {
+            path.get(i - 1).children.remove(levels[i - 1]);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the values of all the filters that match the given topic. As in the MQTT specification, wildcards at
+     * the first level do not match topics starting with {@code $}.
+     */
+    public List<T> match(String topic) {
+        List<T> matches = new ArrayList<>(1);
+        collect(root, topic.split(LEVEL_SEPARATOR, -1), 0, topic.startsWith(SYSTEM_TOPIC_PREFIX), matches);
+        return matches;
+    }
+
+    private void collect(Node<T> node, String[] levels, int level, boolean systemTopic, List<T> matches) {
+        boolean wildcardAllowed = level > 0 || !systemTopic;
+        if (wildcardAllowed) {
+            Node<T> multiLevel = node.children.get(MULTI_LEVEL_WILDCARD);
+            if (Objects.nonNull(multiLevel)) {
+                matches.addAll(multiLevel.values);
+            }
+        }
+        if (level == levels.length) {
+            matches.addAll(node.values);
+            return;
+        }
+        Node<T> exact = node.children.get(levels[level]);
+        if (Objects.nonNull(exact)) {
+            collect(exact, levels, level + 1, systemTopic, matches);
+        }
+        if (wildcardAllowed) {
+            Node<T> singleLevel = node.children.get(SINGLE_LEVEL_WILDCARD);
+            if (Objects.nonNull(singleLevel)) {
+                collect(singleLevel, levels, level + 1, systemTopic, matches);
+            }
+        }
+    }
+
+    private static final class Node<T> {
+        private final Map<String, Node<T>> children = new ConcurrentHashMap<>();
+        private final List<T> values = new CopyOnWriteArrayList<>();
+
+        boolean isEmpty() {
+            return values.isEmpty() && children.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * A plain timing harness for the native micro benchmarks. Each benchmark is warmed up before it is measured, and the
+ * time and the bytes allocated by the measuring thread per operation are printed with the test output. The number of
+ * operations can be scaled with the {@code mqtt.benchmark.scale} system property, so that the benchmarks stay quick in
+ * a regular build.
+ */
+public final class Benchmark {
+
+    private static final int SCALE = Integer.getInteger("mqtt.benchmark.scale", 1);
+    private static final int WARMUP_ROUNDS = 3;
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Benchmark() {
+    }
+
+    /**
+     * Returns the number of operations to measure for the given base count.
+     */
+    public static int operations(int baseOperations) {
+        return baseOperations * SCALE;
+    }
+
+    /**
+     * Runs the given round of {@code operations} operations a few times to warm it up and then once more to measure
+     * it, and returns the time per operation in nanoseconds. The allocations are only those of the calling thread.
+     */
+    public static double measure(String name, int operations, Round round) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run(operations);
+        }
+        long startedBytes = THREADS.getCurrentThreadAllocatedBytes();
+        long startedNanos = System.nanoTime();
+        round.run(operations);
+        double nanosPerOperation = (double) (System.nanoTime() - startedNanos) / operations;
+        double bytesPerOperation = (double) (THREADS.getCurrentThreadAllocatedBytes() - startedBytes) / operations;
+        System.out.printf("%-56s %10.1f ns/op %14.0f ops/s %10.1f B/op%n", name, nanosPerOperation,
+                1_000_000_000 / nanosPerOperation, bytesPerOperation);
+        return nanosPerOperation;
+    }
+
+    /**
+     * A round of a benchmark that runs the given number of operations.
+     */
+    @FunctionalInterface
+    public interface Round {
+
+        void run(int operations) throws Exception;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.client;
+
+import io.ballerina.stdlib.mqtt.Benchmark;
+import org.eclipse.paho.mqttv5.common.MqttMessage;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.OVERFLOW_BLOCK;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.WAIT_STRATEGY_PARK;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.WAIT_STRATEGY_SPIN;
+
+/**
+ * Measures the handoff of received messages from the callback thread of the client to a reader through the receive
+ * queue, with the linked queue and with the ring buffer under each wait strategy. A producer thread adds the
+ * messages while the measuring thread takes them, so the time per message covers both sides of the handoff.
+ */
+public class ReceiveQueueBenchmarkTest {
+
+    private static final String WAIT_STRATEGY_YIELD = "YIELD";
+    private static final int CAPACITY = 1024;
+    private static final int MESSAGES = Benchmark.operations(1_000_000);
+    private static final ReceivedMessage MESSAGE = new ReceivedMessage("sensors/site-1/temperature",
+            new MqttMessage("21.5".getBytes()));
+
+    @Test
+    public void linkedQueueHandoffBenchmark() throws Exception {
+        measureHandoff("receive queue handoff, linked queue", null);
+    }
+
+    @Test
+    public void spinRingBufferHandoffBenchmark() throws Exception {
+        measureHandoff("receive queue handoff, ring buffer with SPIN", WAIT_STRATEGY_SPIN);
+    }
+
+    @Test
+    public void yieldRingBufferHandoffBenchmark() throws Exception {
+        measureHandoff("receive queue handoff, ring buffer with YIELD", WAIT_STRATEGY_YIELD);
+    }
+
+    @Test
+    public void parkRingBufferHandoffBenchmark() throws Exception {
+        measureHandoff("receive queue handoff, ring buffer with PARK", WAIT_STRATEGY_PARK);
+    }
+
+    private static void measureHandoff(String name, String waitStrategy) throws Exception {
+        ReceiveQueue queue = new ReceiveQueue(CAPACITY, OVERFLOW_BLOCK, waitStrategy);
+        Benchmark.measure(name, MESSAGES, messages -> {
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            Thread producer = Thread.ofPlatform().start(() -> {
+                try {
+                    for (int i = 0; i < messages; i++) {
+                        queue.add(MESSAGE);
+                    }
+                } catch (InterruptedException e) {
+                    failure.set(e);
+                }
+            });
+            for (int i = 0; i < messages; i++) {
+                Assert.assertSame(queue.take(), MESSAGE);
+            }
+            producer.join();
+            Assert.assertNull(failure.get());
+        });
+        Assert.assertEquals(queue.size(), 0);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.listener;
+
+import io.ballerina.runtime.api.values.BError;
+import io.ballerina.stdlib.mqtt.Benchmark;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.ORDERING_GLOBAL;
+import static io.ballerina.stdlib.mqtt.utils.MqttConstants.ORDERING_NONE;
+
+/**
+ * Measures the cost of handing the received messages to their handlers through the dispatcher, from the callback
+ * thread dispatching them to the last handler running, with a single lane, a lane per topic and no ordering, and
+ * checks the order the handlers run in.
+ */
+public class OrderedDispatcherBenchmarkTest {
+
+    private static final String ORDERING_PER_TOPIC = "PER_TOPIC";
+    private static final int CONCURRENCY = 4;
+    private static final int TOPICS = 64;
+    private static final int MESSAGES = Benchmark.operations(500_000);
+    private static final Consumer<BError> FAIL_ON_ERROR = error -> Assert.fail(error.getMessage());
+
+    @Test
+    public void globalLaneBenchmark() throws Exception {
+        measureDispatch("dispatch with GLOBAL ordering", 1, ORDERING_GLOBAL);
+    }
+
+    @Test
+    public void perTopicLanesBenchmark() throws Exception {
+        measureDispatch("dispatch with PER_TOPIC ordering, " + TOPICS + " topics", CONCURRENCY, ORDERING_PER_TOPIC);
+    }
+
+    @Test
+    public void unorderedBenchmark() throws Exception {
+        measureDispatch("dispatch with NONE ordering", CONCURRENCY, ORDERING_NONE);
+    }
+
+    @Test
+    public void perTopicOrderIsKept() throws Exception {
+        OrderedDispatcher dispatcher = new OrderedDispatcher(CONCURRENCY, ORDERING_PER_TOPIC, FAIL_ON_ERROR);
+        int[] lastSequence = new int[TOPICS];
+        AtomicReference<String> outOfOrder = new AtomicReference<>();
+        CountDownLatch handled = new CountDownLatch(MESSAGES / 10);
+        for (int i = 0; i < MESSAGES / 10; i++) {
+            int topic = i % TOPICS;
+            int sequence = i / TOPICS + 1;
+            dispatcher.dispatch("topic/" + topic, () -> {
+                // The handlers of a topic run one at a time, so the array slot of the topic is not raced
+                if (lastSequence[topic] != sequence - 1) {
+                    outOfOrder.compareAndSet(null, "topic/" + topic);
+                }
+                lastSequence[topic] = sequence;
+                handled.countDown();
+                return null;
+            });
+        }
+        Assert.assertTrue(handled.await(30, TimeUnit.SECONDS));
+        Assert.assertNull(outOfOrder.get());
+    }
+
+    @Test
+    public void retryHoldsBackItsLane() throws Exception {
+        OrderedDispatcher dispatcher = new OrderedDispatcher(CONCURRENCY, ORDERING_PER_TOPIC, FAIL_ON_ERROR);
+        List<String> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        dispatcher.dispatch("topic/retried", () -> {
+            handled.add("first attempt");
+            return new OrderedDispatcher.Retry(() -> {
+                handled.add("second attempt");
+                done.countDown();
+                return null;
+            }, TimeUnit.MILLISECONDS.toNanos(100));
+        });
+        dispatcher.dispatch("topic/retried", () -> {
+            handled.add("next message");
+            done.countDown();
+            return null;
+        });
+        dispatcher.dispatch("topic/other", () -> {
+            handled.add("other topic");
+            done.countDown();
+            return null;
+        });
+        Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+        Assert.assertTrue(handled.indexOf("other topic") < handled.indexOf("second attempt"));
+        handled.remove("other topic");
+        Assert.assertEquals(handled, List.of("first attempt", "second attempt", "next message"));
+    }
+
+    @Test
+    public void retryFreesTheWorker() throws Exception {
+        // A single worker with no ordering only runs the second handler before the retry if the delay does not hold it
+        OrderedDispatcher dispatcher = new OrderedDispatcher(1, ORDERING_NONE, FAIL_ON_ERROR);
+        List<String> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        dispatcher.dispatch("topic", () -> new OrderedDispatcher.Retry(() -> {
+            handled.add("retry");
+            done.countDown();
+            return null;
+        }, TimeUnit.MILLISECONDS.toNanos(100)));
+        dispatcher.dispatch("topic", () -> {
+            handled.add("next message");
+            done.countDown();
+            return null;
+        });
+        Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+        Assert.assertEquals(handled, List.of("next message", "retry"));
+    }
+
+    private static void measureDispatch(String name, int concurrency, String ordering) throws Exception {
+        OrderedDispatcher dispatcher = new OrderedDispatcher(concurrency, ordering, FAIL_ON_ERROR);
+        String[] topics = new String[TOPICS];
+        for (int i = 0; i < TOPICS; i++) {
+            topics[i] = "sensors/site-" + i + "/temperature";
+        }
+        Benchmark.measure(name, MESSAGES, messages -> {
+            CountDownLatch handled = new CountDownLatch(messages);
+            for (int i = 0; i < messages; i++) {
+                dispatcher.dispatch(topics[i % TOPICS], () -> {
+                    handled.countDown();
+                    return null;
+                });
+            }
+            Assert.assertTrue(handled.await(60, TimeUnit.SECONDS));
+        });
+    }
+}
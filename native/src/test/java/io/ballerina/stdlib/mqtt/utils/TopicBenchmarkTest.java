@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (https://www.wso2.com) All Rights Reserved.
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.stdlib.mqtt.utils;
+
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BString;
+import io.ballerina.stdlib.mqtt.Benchmark;
+import org.eclipse.paho.mqttv5.common.util.MqttTopicValidator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the topic handling done for every received message: creating the Ballerina string of the topic and
+ * matching the topic against the topic filters of the attached services or the open receive streams.
+ */
+public class TopicBenchmarkTest {
+
+    private static final int SITES = 100;
+    private static final int DEVICES_PER_SITE = 10;
+    private static final int OPERATIONS = Benchmark.operations(1_000_000);
+
+    private final List<String> topics = new ArrayList<>();
+    private final List<String> topicFilters = new ArrayList<>();
+
+    public TopicBenchmarkTest() {
+        for (int site = 0; site < SITES; site++) {
+            for (int device = 0; device < DEVICES_PER_SITE; device++) {
+                topics.add("sensors/site-" + site + "/device-" + device + "/temperature");
+            }
+            topicFilters.add("sensors/site-" + site + "/+/temperature");
+            topicFilters.add("sensors/site-" + site + "/#");
+        }
+        topicFilters.add("alerts/#");
+    }
+
+    @Test
+    public void topicStringBenchmark() throws Exception {
+        TopicCache topicCache = new TopicCache(MqttConstants.TOPIC_CACHE_SIZE);
+        Benchmark.measure("topic string created per message", OPERATIONS, operations -> {
+            for (int i = 0; i < operations; i++) {
+                StringUtils.fromString(topics.get(i % topics.size()));
+            }
+        });
+        Benchmark.measure("topic string taken from the topic cache", OPERATIONS, operations -> {
+            for (int i = 0; i < operations; i++) {
+                topicCache.get(topics.get(i % topics.size()));
+            }
+        });
+        BString topic = topicCache.get(topics.get(0));
+        Assert.assertSame(topicCache.get(topics.get(0)), topic);
+    }
+
+    @Test
+    public void topicMatchBenchmark() throws Exception {
+        TopicTrie<String> topicTrie = new TopicTrie<>();
+        for (String topicFilter : topicFilters) {
+            topicTrie.add(topicFilter, topicFilter);
+        }
+        Benchmark.measure("topic matched against each filter in turn", OPERATIONS / 100, operations -> {
+            for (int i = 0; i < operations; i++) {
+                String topic = topics.get(i % topics.size());
+                List<String> matches = new ArrayList<>();
+                for (String topicFilter : topicFilters) {
+                    if (MqttTopicValidator.isMatched(topicFilter, topic)) {
+                        matches.add(topicFilter);
+                    }
+                }
+            }
+        });
+        Benchmark.measure("topic matched through the topic trie", OPERATIONS, operations -> {
+            for (int i = 0; i < operations; i++) {
+                topicTrie.match(topics.get(i % topics.size()));
+            }
+        });
+        Assert.assertEquals(topicTrie.match(topics.get(0)).size(), 2);
+        Assert.assertTrue(topicTrie.match("alerts/fire").contains("alerts/#"));
+    }
+}